@@ -0,0 +1,63 @@
+package org.hiber.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.hiber.api.dto.UserRequestDto;
+import org.hiber.api.dto.UserResponseDto;
+import org.hiber.entity.User;
+import org.hiber.repository.projection.UserView;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static User user(long id) {
+        User user = new User("User " + id, "user" + id + "@example.com", 30);
+        user.setId(id);
+        user.setCreatedAt(LocalDateTime.of(2024, 5, 17, 12, 30, 15, 123_456_000));
+        return user;
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    static UserRequestDto request() {
+        UserRequestDto dto = new UserRequestDto();
+        dto.setName("John Smith");
+        dto.setEmail("john.smith@example.com");
+        dto.setAge(42);
+        return dto;
+    }
+
+    static UserView view(User user) {
+        return new UserView(user.getId(), user.getName(), user.getEmail(), user.getAge(),
+                user.getCreatedAt(), 0L);
+    }
+
+    static UserResponseDto response(User user) {
+        UserResponseDto dto = new UserResponseDto();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setAge(user.getAge());
+        dto.setCreatedAt(user.getCreatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,35 @@
+package org.hiber.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.hiber.api.error.ApiErrorResponse;
+import org.hiber.api.error.GlobalExceptionHandler;
+import org.hiber.service.exceptions.UserNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErrorResponseBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    private MockHttpServletRequest request;
+    private ObjectWriter errorWriter;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/users/42");
+        errorWriter = BenchmarkData.objectMapper().writerFor(ApiErrorResponse.class);
+    }
+
+    @Benchmark
+    public byte[] notFound() throws IOException {
+        ResponseEntity<ApiErrorResponse> response = handler.handleNotFound(new UserNotFoundException(42L), request);
+        return errorWriter.writeValueAsBytes(response.getBody());
+    }
+}
@@ -0,0 +1,36 @@
+package org.hiber.benchmark;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.hiber.kafka.dto.OperationType;
+import org.hiber.kafka.dto.UserNotificationEvent;
+import org.hiber.kafka.serialization.UserNotificationEventSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotificationSerializationBenchmark {
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private Serializer<UserNotificationEvent> serializer;
+    private UserNotificationEvent event;
+
+    @Setup
+    public void setUp() {
+        serializer = "binary".equals(format)
+                ? new UserNotificationEventSerializer()
+                : new JsonSerializer<UserNotificationEvent>().noTypeInfo();
+        event = new UserNotificationEvent(OperationType.CREATE, "john.smith@example.com");
+        System.out.printf("%n%s: %d bytes per event%n", format, serializer.serialize("topic", event).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize("user.notifications", event);
+    }
+}
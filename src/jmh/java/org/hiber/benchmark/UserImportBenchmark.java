@@ -0,0 +1,96 @@
+package org.hiber.benchmark;
+
+import org.hiber.Application;
+import org.hiber.entity.User;
+import org.hiber.service.ImportFormat;
+import org.hiber.service.ImportResult;
+import org.hiber.service.UserImportService;
+import org.hiber.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One invocation loads {@link #ROWS} users into an empty table, either through
+ * {@code POST /api/users/import} (COPY) or through {@code createAll} in batches of 1000.
+ * Needs a PostgreSQL instance, e.g.
+ * {@code -Djmh.args="UserImport -jvmArgsAppend -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/bench"}
+ * (user and password default to postgres).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserImportBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int BATCH = 1000;
+
+    @Param({"copy", "batch"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private UserImportService importService;
+    private UserService userService;
+    private JdbcTemplate jdbcTemplate;
+
+    private byte[] csv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + System.getProperty("benchmark.datasource.url"),
+                        "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "postgres"),
+                        "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "postgres"),
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "eureka.client.enabled=false",
+                        "kafka.outbox.relay.enabled=false")
+                .run();
+        importService = context.getBean(UserImportService.class);
+        userService = context.getBean(UserService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        StringBuilder content = new StringBuilder(ROWS * 40).append("name,email,age\n");
+        for (int i = 0; i < ROWS; i++) {
+            content.append("User ").append(i).append(",user").append(i).append("@bench.test,").append(18 + i % 60).append('\n');
+        }
+        csv = content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() {
+        jdbcTemplate.execute("truncate users, user_outbox");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long load() {
+        if ("copy".equals(mode)) {
+            ImportResult result = importService.importUsers(new ByteArrayInputStream(csv), ImportFormat.CSV);
+            return result.getImported();
+        }
+        long created = 0;
+        List<User> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new User("User " + i, "user" + i + "@bench.test", 18 + i % 60));
+            if (batch.size() == BATCH) {
+                created += userService.createAll(batch).getCreated().size();
+                batch = new ArrayList<>(BATCH);
+            }
+        }
+        return created;
+    }
+}
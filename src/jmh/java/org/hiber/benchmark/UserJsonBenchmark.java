@@ -0,0 +1,82 @@
+package org.hiber.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.hiber.api.dto.UserRequestDto;
+import org.hiber.api.dto.UserResponseDto;
+import org.hiber.api.json.UserViewJsonSerializer;
+import org.hiber.api.mapper.UserMapper;
+import org.hiber.repository.projection.UserView;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserJsonBenchmark {
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private ObjectWriter listWriter;
+    private ObjectWriter viewListWriter;
+    private final UserMapper mapper = new UserMapper();
+
+    private byte[] requestJson;
+    private UserResponseDto response;
+    private List<UserResponseDto> page;
+    private List<UserView> viewPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkData.objectMapper();
+        requestReader = objectMapper.readerFor(UserRequestDto.class);
+        responseWriter = objectMapper.writerFor(UserResponseDto.class);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, UserResponseDto.class));
+
+        requestJson = objectMapper.writeValueAsBytes(BenchmarkData.request());
+        response = BenchmarkData.response(BenchmarkData.user(1));
+        page = BenchmarkData.users(50).stream()
+                .map(BenchmarkData::response)
+                .toList();
+
+        ObjectMapper viewMapper = BenchmarkData.objectMapper()
+                .registerModule(new SimpleModule().addSerializer(new UserViewJsonSerializer()));
+        viewListWriter = viewMapper.writerFor(viewMapper.getTypeFactory()
+                .constructCollectionType(List.class, UserView.class));
+        viewPage = BenchmarkData.users(50).stream()
+                .map(BenchmarkData::view)
+                .toList();
+    }
+
+    @Benchmark
+    public UserRequestDto parseRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeListOf50() throws IOException {
+        return listWriter.writeValueAsBytes(page);
+    }
+
+    /** Read path before the view serializer: projection -> DTO -> bean serializer. */
+    @Benchmark
+    public byte[] writeViewListOf50ViaDto() throws IOException {
+        return listWriter.writeValueAsBytes(viewPage.stream().map(mapper::toResponseDto).toList());
+    }
+
+    @Benchmark
+    public byte[] writeViewListOf50() throws IOException {
+        return viewListWriter.writeValueAsBytes(viewPage);
+    }
+}
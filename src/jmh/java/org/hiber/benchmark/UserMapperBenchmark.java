@@ -0,0 +1,36 @@
+package org.hiber.benchmark;
+
+import org.hiber.api.dto.UserRequestDto;
+import org.hiber.api.dto.UserResponseDto;
+import org.hiber.api.mapper.UserMapper;
+import org.hiber.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserMapperBenchmark {
+
+    private final UserMapper mapper = new UserMapper();
+
+    private UserRequestDto request;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkData.request();
+        user = BenchmarkData.user(1);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public UserResponseDto toResponseDto() {
+        return mapper.toResponseDto(user);
+    }
+}
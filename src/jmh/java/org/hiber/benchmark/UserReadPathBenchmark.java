@@ -0,0 +1,105 @@
+package org.hiber.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.hiber.Application;
+import org.hiber.api.dto.UserResponseDto;
+import org.hiber.api.mapper.UserMapper;
+import org.hiber.entity.User;
+import org.hiber.repository.UserRepository;
+import org.hiber.repository.projection.UserView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Needs a PostgreSQL instance, e.g.
+ * {@code -Djmh.args="UserReadPath -jvmArgsAppend -Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/bench"}
+ * (user and password default to postgres).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserReadPathBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int PAGE = 100;
+
+    @Param({"entity", "projection"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private UserMapper mapper;
+    private TransactionTemplate readOnly;
+
+    private long id;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + System.getProperty("benchmark.datasource.url"),
+                        "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "postgres"),
+                        "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "postgres"),
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "eureka.client.enabled=false",
+                        "kafka.outbox.relay.enabled=false")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        mapper = context.getBean(UserMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        context.getBean(JdbcTemplate.class).update("""
+                insert into users (id, name, email, age, created_at, version)
+                select g, 'User ' || g, 'user' || g || '@bench.test', 18 + g % 60, localtimestamp, 0
+                  from generate_series(1, ?) g
+                """, ROWS);
+        context.getBean(JdbcTemplate.class).execute("vacuum analyze users");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponseDto findById() {
+        id = id % ROWS + 1;
+        long current = id;
+        return readOnly.execute(status -> "entity".equals(mode)
+                ? mapper.toResponseDto(userRepository.findById(current).orElseThrow())
+                : mapper.toResponseDto(userRepository.findViewById(current).orElseThrow()));
+    }
+
+    @Benchmark
+    public List<UserResponseDto> page() {
+        id = (id + PAGE) % (ROWS - PAGE);
+        long current = id;
+        return readOnly.execute(status -> {
+            if ("entity".equals(mode)) {
+                return entityManager.createQuery("select u from User u where u.id > :afterId order by u.id", User.class)
+                        .setParameter("afterId", current)
+                        .setMaxResults(PAGE)
+                        .getResultList()
+                        .stream()
+                        .map(mapper::toResponseDto)
+                        .toList();
+            }
+            return userRepository.findViewsAfterId(current, Limit.of(PAGE)).stream()
+                    .map(mapper::toResponseDto)
+                    .toList();
+        });
+    }
+}
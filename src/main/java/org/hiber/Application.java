@@ -1,12 +1,25 @@
 package org.hiber;
 
+import org.hiber.startup.StartupTimingReport;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE + 1)
 public class Application {
 
+    // Enough for every bean instantiation and post-processing step of this context
+    private static final int BUFFERED_STARTUP_STEPS = 10_000;
+
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        SpringApplication application = new SpringApplication(Application.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(BUFFERED_STARTUP_STEPS));
+        application.addListeners(new StartupTimingReport());
+        application.run(args);
     }
 }
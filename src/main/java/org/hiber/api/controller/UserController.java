@@ -1,14 +1,42 @@
 package org.hiber.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.hiber.api.dto.EmailAvailabilityResponseDto;
+import org.hiber.api.dto.UserBatchRequestDto;
+import org.hiber.api.dto.UserBatchResponseDto;
+import org.hiber.api.dto.UserImportResponseDto;
+import org.hiber.api.dto.UserPageResponseDto;
 import org.hiber.api.dto.UserRequestDto;
 import org.hiber.api.dto.UserResponseDto;
 import org.hiber.api.error.ApiErrorResponse;
+import org.hiber.api.etag.UserETag;
+import org.hiber.api.export.ExportCompression;
+import org.hiber.api.export.ExportFormat;
+import org.hiber.api.export.UserExportWriter;
+import org.hiber.api.idempotency.IdempotencyStore;
+import org.hiber.api.json.UserViewJsonSerializer;
 import org.hiber.api.mapper.UserMapper;
+import org.hiber.api.pagination.UserCursor;
+import org.hiber.api.pagination.UserSearchParams;
 import org.hiber.entity.User;
+import org.hiber.repository.projection.UserView;
+import org.hiber.repository.search.UserFilter;
+import org.hiber.repository.search.UserSort;
+import org.hiber.service.BatchCreateResult;
+import org.hiber.service.ImportFormat;
+import org.hiber.service.UserImportService;
 import org.hiber.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,7 +45,13 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 @Tag(
         name = "Users",
@@ -27,17 +61,32 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportWriter userExportWriter;
     private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
 
-    public UserController(UserService userService, UserMapper userMapper) {
+    public UserController(UserService userService, UserImportService userImportService,
+                          UserExportWriter userExportWriter, UserMapper userMapper, ObjectMapper objectMapper,
+                          IdempotencyStore idempotencyStore) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.userExportWriter = userExportWriter;
         this.userMapper = userMapper;
+        this.objectMapper = objectMapper;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @Operation(
             summary = "Создание пользователя",
-            description = "Создаёт нового пользователя и возвращает его данные"
+            description = "Создаёт нового пользователя и возвращает его данные. С заголовком Idempotency-Key "
+                    + "повтор запроса с тем же ключом и телом возвращает исходный ответ, не создавая пользователя заново"
     )
     @ApiResponses({
             @ApiResponse(
@@ -52,18 +101,133 @@ public class UserController {
             ),
             @ApiResponse(
                     responseCode = "409",
-                    description = "Пользователь с таким email уже существует",
+                    description = "Пользователь с таким email уже существует "
+                            + "или запрос с тем же Idempotency-Key ещё выполняется",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Idempotency-Key уже использован с другим телом запроса",
                     content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
             )
     })
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public UserResponseDto create(@Valid @RequestBody UserRequestDto requestDto) {
+    public ResponseEntity<UserResponseDto> create(
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody UserRequestDto requestDto
+    ) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(doCreate(requestDto));
+        }
+        List<Object> fingerprint = Arrays.asList(requestDto.getName(), requestDto.getEmail(), requestDto.getAge());
+        IdempotencyStore.Result<UserResponseDto> result =
+                idempotencyStore.execute(idempotencyKey, fingerprint, () -> doCreate(requestDto));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, Boolean.toString(result.isReplayed()))
+                .body(result.getValue());
+    }
+
+    private UserResponseDto doCreate(UserRequestDto requestDto) {
         User user = userMapper.toEntity(requestDto);
         User created = userService.create(user);
         return userMapper.toResponseDto(created);
     }
 
+    @Operation(
+            summary = "Пакетное создание пользователей",
+            description = "Создаёт до 1000 пользователей за один запрос и сообщает о занятых email по каждому элементу"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Пакет обработан",
+                    content = @Content(schema = @Schema(implementation = UserBatchResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректные данные",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @PostMapping("/batch")
+    public UserBatchResponseDto createAll(@Valid @RequestBody UserBatchRequestDto requestDto) {
+        List<User> users = requestDto.getUsers().stream()
+                .map(userMapper::toEntity)
+                .toList();
+        BatchCreateResult result = userService.createAll(users);
+        return userMapper.toBatchResponseDto(result);
+    }
+
+    @Operation(
+            summary = "Импорт пользователей из CSV",
+            description = "Потоково загружает пользователей из CSV с заголовком name,email,age. "
+                    + "Строки проверяются по тем же правилам, что и при создании; некорректные строки и занятые email "
+                    + "не прерывают импорт и перечисляются в ответе"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Файл обработан",
+                    content = @Content(schema = @Schema(implementation = UserImportResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Файл не удалось разобрать, ничего не импортировано",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public UserImportResponseDto importCsv(InputStream body) {
+        return userMapper.toImportResponseDto(userImportService.importUsers(body, ImportFormat.CSV));
+    }
+
+    @Operation(
+            summary = "Импорт пользователей из NDJSON",
+            description = "Потоково загружает пользователей из NDJSON, по одному объекту UserRequestDto на строку. "
+                    + "Строки проверяются по тем же правилам, что и при создании; некорректные строки и занятые email "
+                    + "не прерывают импорт и перечисляются в ответе"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Файл обработан",
+                    content = @Content(schema = @Schema(implementation = UserImportResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Файл не удалось разобрать, ничего не импортировано",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public UserImportResponseDto importNdjson(InputStream body) {
+        return userMapper.toImportResponseDto(userImportService.importUsers(body, ImportFormat.NDJSON));
+    }
+
+    @Operation(
+            summary = "Проверка занятости email",
+            description = "Отвечает из индекса в памяти; к базе данных обращается, только если email, вероятно, занят. "
+                    + "Email, занятый через другой экземпляр сервиса, попадает в индекс из топика снимков, поэтому "
+                    + "на время задержки outbox или недоступности Kafka может быть ответ available=true; "
+                    + "создание пользователя с таким email всё равно вернёт 409"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Проверка выполнена",
+                    content = @Content(schema = @Schema(implementation = EmailAvailabilityResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Email не передан",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping("/email-available")
+    public EmailAvailabilityResponseDto isEmailAvailable(@RequestParam(required = false) String email) {
+        return new EmailAvailabilityResponseDto(email, userService.isEmailAvailable(email));
+    }
+
     @Operation(
             summary = "Получение пользователя",
             description = "Возвращает пользователя по id"
@@ -74,6 +238,10 @@ public class UserController {
                     description = "Пользователь найден",
                     content = @Content(schema = @Schema(implementation = UserResponseDto.class))
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Пользователь не изменился с версии из If-None-Match"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Пользователь не найден",
@@ -81,9 +249,15 @@ public class UserController {
             )
     })
     @GetMapping("/{id}")
-    public UserResponseDto findById(@PathVariable Long id) {
-        User user = userService.findById(id);
-        return userMapper.toResponseDto(user);
+    public ResponseEntity<UserView> findById(@PathVariable Long id, WebRequest webRequest) {
+        UserView user = userService.findById(id);
+        String etag = UserETag.of(user.getVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(user);
     }
 
     @Operation(
@@ -101,10 +275,113 @@ public class UserController {
     })
 
     @GetMapping
-    public List<UserResponseDto> findAll() {
-        return userService.findAll().stream()
-                .map(userMapper::toResponseDto)
-                .toList();
+    public List<UserView> findAll() {
+        return userService.findAll();
+    }
+
+    @Operation(
+            summary = "Постраничное получение и поиск пользователей",
+            description = "Возвращает страницу пользователей и курсор следующей страницы. "
+                    + "Фильтры: name (nameMatch=prefix|contains, без учёта регистра), minAge, maxAge, createdAfter. "
+                    + "Сортировка sort: id, name, age, createdAt, с префиксом '-' - по убыванию"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Страница пользователей успешно получена",
+                    content = @Content(schema = @Schema(implementation = UserPageResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректный курсор, фильтр, сортировка или размер страницы",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping(params = "limit")
+    public UserPageResponseDto findPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String nameMatch,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @RequestParam(required = false) String sort
+    ) {
+        UserFilter filter = new UserFilter(name, UserSearchParams.nameMatch(nameMatch), minAge, maxAge, createdAfter);
+        UserSort userSort = UserSearchParams.sort(sort);
+        List<UserView> users = filter.isEmpty() && userSort.isDefault()
+                ? userService.findPage(UserCursor.decode(cursor), limit)
+                : userService.search(filter, userSort, UserCursor.decode(cursor, userSort), limit);
+        String next = users.size() == limit ? UserCursor.encode(userSort, users.get(users.size() - 1)) : null;
+        return new UserPageResponseDto(users, next);
+    }
+
+    @Operation(
+            summary = "Потоковая выгрузка пользователей",
+            description = "Возвращает всех пользователей в формате NDJSON, по одному объекту на строку"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Поток пользователей",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = UserResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                userService.streamAll(null, user -> {
+                    try {
+                        UserViewJsonSerializer.write(user, generator);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Сжатая выгрузка пользователей",
+            description = "Потоково выгружает всех пользователей по возрастанию id в CSV или NDJSON, "
+                    + "сжатых gzip, zstd или xz. Каждая строка содержит id: если соединение оборвалось, "
+                    + "выгрузку можно продолжить, передав в after id последней полностью полученной строки"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Сжатый поток пользователей"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Неподдерживаемый формат или сжатие",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            )
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "gzip") String compression,
+            @RequestParam(required = false) Long after
+    ) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        ExportCompression exportCompression = ExportCompression.fromParam(compression);
+        String filename = "users." + exportFormat.getParam() + exportCompression.getExtension();
+        StreamingResponseBody body = out -> userExportWriter.write(exportFormat, exportCompression, after, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportCompression.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
     }
 
     @Operation(
@@ -126,17 +403,29 @@ public class UserController {
                     responseCode = "400",
                     description = "Некорректные данные запроса",
                     content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Пользователь изменён после получения версии из If-Match",
+                    content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))
             )
     })
     @PutMapping("/{id}")
-    public UserResponseDto update(
+    public ResponseEntity<UserResponseDto> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserRequestDto requestDto
     ) {
         User user = userMapper.toEntity(requestDto);
         user.setId(id);
+        Set<Long> versions = UserETag.parseIfMatch(ifMatch);
+        if (versions != null) {
+            user.setVersion(versions.size() == 1 ? versions.iterator().next() : userService.matchVersion(id, versions));
+        }
         User updated = userService.update(user);
-        return userMapper.toResponseDto(updated);
+        return ResponseEntity.ok()
+                .eTag(UserETag.of(updated.getVersion()))
+                .body(userMapper.toResponseDto(updated));
     }
 
     @Operation(
@@ -0,0 +1,16 @@
+package org.hiber.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EmailAvailabilityResponseDto {
+
+    @Schema(description = "Проверенный email")
+    private String email;
+
+    @Schema(description = "true, если email свободен")
+    private boolean available;
+}
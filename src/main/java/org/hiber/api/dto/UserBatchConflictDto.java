@@ -0,0 +1,19 @@
+package org.hiber.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserBatchConflictDto {
+
+    @Schema(description = "Позиция пользователя в запросе")
+    private int index;
+
+    @Schema(description = "Email, который уже занят")
+    private String email;
+
+    @Schema(description = "Сообщение об ошибке")
+    private String message;
+}
@@ -0,0 +1,21 @@
+package org.hiber.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class UserBatchRequestDto {
+
+    @Schema(description = "Создаваемые пользователи")
+    @NotEmpty(message = "must not be empty")
+    @Size(max = 1000, message = "must contain at most 1000 users")
+    private List<@Valid UserRequestDto> users;
+
+}
@@ -0,0 +1,18 @@
+package org.hiber.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class UserBatchResponseDto {
+
+    @Schema(description = "Созданные пользователи")
+    private List<UserResponseDto> created;
+
+    @Schema(description = "Пользователи, не созданные из-за занятого email")
+    private List<UserBatchConflictDto> conflicts;
+}
@@ -0,0 +1,19 @@
+package org.hiber.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserImportErrorDto {
+
+    @Schema(description = "Номер строки с данными, начиная с 1 (без заголовка CSV)")
+    private long row;
+
+    @Schema(description = "Email из строки, если он был прочитан")
+    private String email;
+
+    @Schema(description = "Сообщение об ошибке")
+    private String message;
+}
@@ -0,0 +1,27 @@
+package org.hiber.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class UserImportResponseDto {
+
+    @Schema(description = "Прочитано строк с данными")
+    private long received;
+
+    @Schema(description = "Создано пользователей")
+    private long imported;
+
+    @Schema(description = "Строк, не прошедших валидацию")
+    private long rejected;
+
+    @Schema(description = "Строк с занятым или повторяющимся email")
+    private long conflicts;
+
+    @Schema(description = "Первые ошибки по строкам; их число ограничено users.import.max-reported-errors")
+    private List<UserImportErrorDto> errors;
+}
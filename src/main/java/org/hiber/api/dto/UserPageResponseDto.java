@@ -0,0 +1,21 @@
+package org.hiber.api.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hiber.repository.projection.UserView;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class UserPageResponseDto {
+
+    @ArraySchema(arraySchema = @Schema(description = "Пользователи текущей страницы"),
+            schema = @Schema(implementation = UserResponseDto.class))
+    private List<UserView> items;
+
+    @Schema(description = "Курсор следующей страницы, null если страница последняя")
+    private String next;
+}
@@ -3,7 +3,10 @@ package org.hiber.api.error;
 import jakarta.servlet.http.HttpServletRequest;
 import org.hiber.service.exceptions.BusinessException;
 import org.hiber.service.exceptions.EmailAlreadyExistsException;
+import org.hiber.service.exceptions.IdempotencyKeyInProgressException;
+import org.hiber.service.exceptions.IdempotencyKeyReusedException;
 import org.hiber.service.exceptions.UserNotFoundException;
+import org.hiber.service.exceptions.UserVersionMismatchException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -61,6 +64,45 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(UserVersionMismatchException.class)
+    public ResponseEntity<ApiErrorResponse> handleVersionMismatch(
+            UserVersionMismatchException ex,
+            HttpServletRequest request
+    ) {
+        return buildError(
+                HttpStatus.PRECONDITION_FAILED,
+                "Version mismatch",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ApiErrorResponse> handleIdempotencyKeyReused(
+            IdempotencyKeyReusedException ex,
+            HttpServletRequest request
+    ) {
+        return buildError(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency key reused",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ApiErrorResponse> handleIdempotencyKeyInProgress(
+            IdempotencyKeyInProgressException ex,
+            HttpServletRequest request
+    ) {
+        return buildError(
+                HttpStatus.CONFLICT,
+                "Request in progress",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<ApiErrorResponse> handleBusiness(
             BusinessException ex,
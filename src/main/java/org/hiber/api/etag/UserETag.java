@@ -0,0 +1,54 @@
+package org.hiber.api.etag;
+
+import org.hiber.service.exceptions.BusinessException;
+import org.springframework.http.ETag;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class UserETag {
+
+    private UserETag() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Versions an {@code If-Match} header accepts, or {@code null} when it places no condition
+     * (absent or {@code *}). If-Match uses strong comparison, so weak tags ({@code W/"3"}) and
+     * tags that are not a version never match; an empty result means no current version can match.
+     */
+    public static Set<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.isEmpty()) {
+            throw new BusinessException("Invalid If-Match header");
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        for (ETag tag : tags) {
+            if (tag.isWildcard()) {
+                return null;
+            }
+            if (!tag.weak()) {
+                Long version = parseVersion(tag.tag());
+                if (version != null) {
+                    versions.add(version);
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static Long parseVersion(String tag) {
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.hiber.api.export;
+
+import lombok.Getter;
+import org.hiber.service.exceptions.BusinessException;
+
+@Getter
+public enum ExportFormat {
+    CSV("csv"),
+    NDJSON("ndjson");
+
+    private final String param;
+
+    ExportFormat(String param) {
+        this.param = param;
+    }
+
+    public static ExportFormat fromParam(String value) {
+        for (ExportFormat format : values()) {
+            if (format.param.equals(value)) {
+                return format;
+            }
+        }
+        throw new BusinessException("Unsupported export format: " + value);
+    }
+}
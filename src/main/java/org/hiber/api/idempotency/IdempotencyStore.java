@@ -0,0 +1,146 @@
+package org.hiber.api.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hiber.service.exceptions.BusinessException;
+import org.hiber.service.exceptions.IdempotencyKeyInProgressException;
+import org.hiber.service.exceptions.IdempotencyKeyReusedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Results of recent requests by {@code Idempotency-Key}, so a client retrying a request gets
+ * the original result back instead of running it again.
+ *
+ * <p>The first request with a key registers a pending result and runs; duplicates arriving
+ * meanwhile wait for that same result rather than running concurrently. Only successful results
+ * are kept: if the first request fails, its waiters get the same error and the key is released
+ * for the next retry. A key sent again with a different request is rejected. The store is
+ * bounded by size and time since write and is local to the instance, so a retry routed to
+ * another instance runs again and is caught by the usual uniqueness checks.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+    private final long waitMs;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    public IdempotencyStore(@Value("${users.idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${users.idempotency.ttl-ms:600000}") long ttlMs,
+                            @Value("${users.idempotency.wait-ms:10000}") long waitMs,
+                            MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.waitMs = waitMs;
+        executed = requestCounter(meterRegistry, "executed");
+        replayed = requestCounter(meterRegistry, "replayed");
+        rejected = requestCounter(meterRegistry, "rejected");
+        Gauge.builder("user.idempotency.keys", entries, Cache::estimatedSize)
+                .description("Idempotency keys currently remembered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per key, or returns the result of the earlier run with that key.
+     *
+     * @param fingerprint identifies the request body; compared with {@code equals} against the
+     *                    fingerprint the key was first used with
+     */
+    public <T> Result<T> execute(String key, Object fingerprint, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Invalid Idempotency-Key header");
+        }
+        Entry created = new Entry(fingerprint);
+        Entry existing = entries.asMap().putIfAbsent(key, created);
+        if (existing == null) {
+            return run(key, created, action);
+        }
+        if (!existing.fingerprint.equals(fingerprint)) {
+            rejected.increment();
+            throw new IdempotencyKeyReusedException(key);
+        }
+        replayed.increment();
+        logger.debug("execute() - replaying result for idempotency key {}", key);
+        return new Result<>(await(key, existing), true);
+    }
+
+    private <T> Result<T> run(String key, Entry entry, Supplier<T> action) {
+        executed.increment();
+        T value;
+        try {
+            value = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.asMap().remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        entry.result.complete(value);
+        return new Result<>(value, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T await(String key, Entry entry) {
+        try {
+            return (T) entry.result.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("user.idempotency.requests")
+                .description("Requests carrying an Idempotency-Key by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result<T> {
+        private final T value;
+        private final boolean replayed;
+    }
+
+    private static final class Entry {
+        private final Object fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Entry(Object fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
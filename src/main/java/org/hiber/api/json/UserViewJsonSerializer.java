@@ -0,0 +1,110 @@
+package org.hiber.api.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.hiber.repository.projection.UserView;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a {@link UserView} straight to the generator in the shape of
+ * {@link org.hiber.api.dto.UserResponseDto}, so read endpoints need neither the DTO nor
+ * reflective bean serialization. Field names are pre-encoded and {@code createdAt} is
+ * formatted into a char buffer exactly as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} does.
+ */
+@JsonComponent
+public class UserViewJsonSerializer extends StdSerializer<UserView> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString AGE = new SerializedString("age");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+
+    // yyyy-MM-ddTHH:mm:ss.nnnnnnnnn
+    private static final int MAX_DATE_TIME_LENGTH = 29;
+
+    public UserViewJsonSerializer() {
+        super(UserView.class);
+    }
+
+    @Override
+    public void serialize(UserView user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(user, generator);
+    }
+
+    public static void write(UserView user, JsonGenerator generator) throws IOException {
+        generator.writeStartObject(user);
+        generator.writeFieldName(ID);
+        if (user.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(user.getId());
+        }
+        generator.writeFieldName(NAME);
+        generator.writeString(user.getName());
+        generator.writeFieldName(EMAIL);
+        generator.writeString(user.getEmail());
+        generator.writeFieldName(AGE);
+        if (user.getAge() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(user.getAge());
+        }
+        generator.writeFieldName(CREATED_AT);
+        writeDateTime(user.getCreatedAt(), generator);
+        generator.writeEndObject();
+    }
+
+    static void writeDateTime(LocalDateTime value, JsonGenerator generator) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            generator.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] buffer = new char[MAX_DATE_TIME_LENGTH];
+        int year = value.getYear();
+        buffer[0] = digit(year / 1000);
+        buffer[1] = digit(year / 100 % 10);
+        buffer[2] = digit(year / 10 % 10);
+        buffer[3] = digit(year % 10);
+        buffer[4] = '-';
+        twoDigits(buffer, 5, value.getMonthValue());
+        buffer[7] = '-';
+        twoDigits(buffer, 8, value.getDayOfMonth());
+        buffer[10] = 'T';
+        twoDigits(buffer, 11, value.getHour());
+        buffer[13] = ':';
+        twoDigits(buffer, 14, value.getMinute());
+        buffer[16] = ':';
+        twoDigits(buffer, 17, value.getSecond());
+        int length = 19;
+        int nano = value.getNano();
+        if (nano > 0) {
+            buffer[length++] = '.';
+            for (int divisor = 100_000_000; nano > 0; divisor /= 10) {
+                buffer[length++] = digit(nano / divisor);
+                nano %= divisor;
+            }
+        }
+        generator.writeString(buffer, 0, length);
+    }
+
+    private static void twoDigits(char[] buffer, int position, int value) {
+        buffer[position] = digit(value / 10);
+        buffer[position + 1] = digit(value % 10);
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value);
+    }
+}
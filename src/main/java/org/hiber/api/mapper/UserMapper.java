@@ -1,8 +1,15 @@
 package org.hiber.api.mapper;
 
+import org.hiber.api.dto.UserBatchConflictDto;
+import org.hiber.api.dto.UserBatchResponseDto;
+import org.hiber.api.dto.UserImportErrorDto;
+import org.hiber.api.dto.UserImportResponseDto;
 import org.hiber.api.dto.UserRequestDto;
 import org.hiber.api.dto.UserResponseDto;
 import org.hiber.entity.User;
+import org.hiber.repository.projection.UserView;
+import org.hiber.service.BatchCreateResult;
+import org.hiber.service.ImportResult;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -33,4 +40,52 @@ public class UserMapper {
         dto.setCreatedAt(user.getCreatedAt());
         return dto;
     }
+
+    public UserResponseDto toResponseDto(UserView user) {
+        if (user == null) {
+            return null;
+        }
+
+        UserResponseDto dto = new UserResponseDto();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setAge(user.getAge());
+        dto.setCreatedAt(user.getCreatedAt());
+        return dto;
+    }
+
+    public UserBatchResponseDto toBatchResponseDto(BatchCreateResult result) {
+        if (result == null) {
+            return null;
+        }
+
+        return new UserBatchResponseDto(
+                result.getCreated().stream()
+                        .map(this::toResponseDto)
+                        .toList(),
+                result.getConflicts().stream()
+                        .map(conflict -> new UserBatchConflictDto(
+                                conflict.getIndex(),
+                                conflict.getEmail(),
+                                "Email already exists"))
+                        .toList()
+        );
+    }
+
+    public UserImportResponseDto toImportResponseDto(ImportResult result) {
+        if (result == null) {
+            return null;
+        }
+
+        return new UserImportResponseDto(
+                result.getReceived(),
+                result.getImported(),
+                result.getRejected(),
+                result.getConflicts(),
+                result.getErrors().stream()
+                        .map(error -> new UserImportErrorDto(error.getRow(), error.getEmail(), error.getMessage()))
+                        .toList()
+        );
+    }
 }
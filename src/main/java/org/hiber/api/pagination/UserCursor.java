@@ -0,0 +1,87 @@
+package org.hiber.api.pagination;
+
+import org.hiber.repository.projection.UserView;
+import org.hiber.repository.search.UserKey;
+import org.hiber.repository.search.UserSort;
+import org.hiber.repository.search.UserSortField;
+import org.hiber.service.exceptions.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public final class UserCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private UserCursor() {
+    }
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(cursor);
+            return Long.parseLong(new String(raw, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid cursor", e);
+        }
+    }
+
+    public static String encode(UserSort sort, UserView last) {
+        if (sort.getField() == UserSortField.ID) {
+            return encode(last.getId());
+        }
+        Object value = sort.getField().valueOf(last);
+        String raw = sort.toParam() + SEPARATOR + (value == null ? "" : value.toString()) + SEPARATOR + last.getId();
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserKey decode(String cursor, UserSort sort) {
+        if (sort.getField() == UserSortField.ID) {
+            Long id = decode(cursor);
+            return id == null ? null : new UserKey(id, id);
+        }
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last || !raw.substring(0, first).equals(sort.toParam())) {
+                throw new BusinessException("Invalid cursor");
+            }
+            String value = raw.substring(first + 1, last);
+            long id = Long.parseLong(raw.substring(last + 1));
+            return new UserKey(parseValue(sort.getField(), value), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Invalid cursor", e);
+        }
+    }
+
+    private static Object parseValue(UserSortField field, String value) {
+        if (value.isEmpty() && field.isNullable()) {
+            return null;
+        }
+        return switch (field) {
+            case NAME -> value;
+            case AGE -> Integer.valueOf(value);
+            case CREATED_AT -> LocalDateTime.parse(value);
+            case ID -> Long.valueOf(value);
+        };
+    }
+}
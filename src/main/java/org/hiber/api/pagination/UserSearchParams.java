@@ -0,0 +1,36 @@
+package org.hiber.api.pagination;
+
+import org.hiber.repository.search.UserFilter;
+import org.hiber.repository.search.UserSort;
+import org.hiber.repository.search.UserSortField;
+import org.hiber.service.exceptions.BusinessException;
+
+public final class UserSearchParams {
+
+    private UserSearchParams() {
+    }
+
+    public static UserSort sort(String value) {
+        if (value == null || value.isBlank()) {
+            return UserSort.DEFAULT;
+        }
+        boolean descending = value.startsWith("-");
+        String attribute = descending ? value.substring(1) : value;
+        for (UserSortField field : UserSortField.values()) {
+            if (field.getAttribute().equals(attribute)) {
+                return new UserSort(field, descending);
+            }
+        }
+        throw new BusinessException("Unsupported sort: " + value);
+    }
+
+    public static UserFilter.NameMatch nameMatch(String value) {
+        if (value == null || value.isBlank() || "prefix".equals(value)) {
+            return UserFilter.NameMatch.PREFIX;
+        }
+        if ("contains".equals(value)) {
+            return UserFilter.NameMatch.CONTAINS;
+        }
+        throw new BusinessException("Unsupported name match: " + value);
+    }
+}
@@ -0,0 +1,47 @@
+package org.hiber.datasource;
+
+/**
+ * Marks the current thread as having to read from the primary, so a client sees its own
+ * writes even while replicas are still replaying them. Work handed to another thread, such as a
+ * streamed response body written on an MVC async thread, keeps the mark through {@link #propagate}.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isActive() {
+        return PRIMARY.get() != null;
+    }
+
+    public static Scope stickToPrimary() {
+        if (isActive()) {
+            return () -> { };
+        }
+        PRIMARY.set(Boolean.TRUE);
+        return PRIMARY::remove;
+    }
+
+    /**
+     * The task as is if the current thread may read from replicas, otherwise a task that runs
+     * it with {@link ReadYourWrites} active on whichever thread executes it.
+     */
+    public static Runnable propagate(Runnable task) {
+        if (!isActive()) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = stickToPrimary()) {
+                task.run();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,147 @@
+package org.hiber.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions: round-robin over the replicas whose replay lag is
+ * within {@code maxLagMs}, falling back to the primary when none qualifies, when a replica
+ * refuses a connection, or while {@link ReadYourWrites} is active.
+ *
+ * <p>Replicas start out unhealthy and only receive reads after the first lag check passes.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    // Caught-up standbys report 0 even when the primary is idle and the last replayed transaction is old.
+    // Equal LSNs only mean caught up while the WAL receiver is streaming: a standby cut off from the primary
+    // has replayed everything it received too, so it reports null (unbounded lag). Reading the receiver status
+    // needs pg_read_all_stats (or pg_monitor); without it the status is null and the replica never takes reads
+    static final String LAG_QUERY = """
+                select case
+                           when not pg_is_in_recovery() then 0
+                           when not exists (select 1 from pg_stat_wal_receiver where status = 'streaming') then null
+                           when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                           else extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000
+                       end
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter readsOnReplica;
+    private final Counter readsOnPrimary;
+
+    public ReplicaDataSource(DataSource primary, List<DataSource> replicas, long maxLagMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = new Replica(String.valueOf(i), replicas.get(i));
+            this.replicas.add(replica);
+            Gauge.builder("user.datasource.replica.lag", replica, r -> r.lagMs)
+                    .description("Replay lag of the read replica, NaN while it is unreachable")
+                    .tag("replica", replica.name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        readsOnReplica = readCounter(meterRegistry, "replica");
+        readsOnPrimary = readCounter(meterRegistry, "primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.isActive() && !replicas.isEmpty()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    readsOnReplica.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                    logger.warn("getConnection() - replica {} unavailable, skipping until next lag check: {}",
+                            replica.name, e.getMessage());
+                }
+            }
+        }
+        readsOnPrimary.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica credentials come from configuration");
+    }
+
+    @Scheduled(fixedDelayString = "${users.datasource.replica-lag-check-ms:1000}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                double lagMs = resultSet.getDouble(1);
+                replica.lagMs = resultSet.wasNull() ? Double.POSITIVE_INFINITY : lagMs;
+                healthy = replica.lagMs <= maxLagMs;
+            } catch (SQLException e) {
+                replica.lagMs = Double.NaN;
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                logger.info("checkLag() - replica {} {}, lag: {} ms", replica.name,
+                        healthy ? "takes reads" : "excluded from reads", replica.lagMs);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("user.datasource.reads")
+                .description("Read-only connections by the data source that served them")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagMs = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
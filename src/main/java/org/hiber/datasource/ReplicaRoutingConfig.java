@@ -0,0 +1,87 @@
+package org.hiber.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to replicas when {@code users.datasource.replica-urls} is set.
+ * The application data source is a {@link LazyConnectionDataSourceProxy}: it only fetches a
+ * real connection at the first statement, by which time the transaction has marked it read-only,
+ * and then takes it from {@link ReplicaDataSource} instead of the primary pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.datasource.replica-urls")
+public class ReplicaRoutingConfig {
+
+    @Value("${users.datasource.replica-urls}")
+    private List<String> replicaUrls;
+
+    @Value("${users.datasource.replica-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${users.datasource.replica-max-lag-ms:1000}")
+    private long replicaMaxLagMs;
+
+    @Value("${users.datasource.sticky-ms:5000}")
+    private long stickyMs;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                               DataSourceProperties properties,
+                                               MeterRegistry meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls.get(i).trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, replicaMaxLagMs, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter(stickyMs);
+    }
+
+    // Applied by Boot to applicationTaskExecutor, which writes StreamingResponseBody (stream, export)
+    // after the request thread has left the filter
+    @Bean
+    public TaskDecorator readYourWritesTaskDecorator() {
+        return ReadYourWrites::propagate;
+    }
+}
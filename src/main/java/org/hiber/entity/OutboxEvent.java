@@ -0,0 +1,41 @@
+package org.hiber.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@Setter
+@Getter
+@Entity
+@Table(name = "user_outbox")
+public class OutboxEvent {
+
+    // Assigned by the insert while the writer holds the user's row lock, so id order is per-user write order,
+    // which the relay publishes in. Pooled blocks would hand out ids ahead of time and break that order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NonNull
+    @Column(name = "event_key", nullable = false)
+    private String eventKey;
+
+    @NonNull
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public OutboxEvent(@NonNull String eventKey, @NonNull String payload) {
+        this.eventKey = eventKey;
+        this.payload = payload;
+    }
+}
@@ -1,12 +1,19 @@
 package org.hiber.kafka.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.hiber.kafka.dto.UserNotificationEvent;
+import org.hiber.kafka.dto.UserSnapshot;
+import org.hiber.kafka.serialization.UserNotificationEventSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.util.HashMap;
@@ -18,18 +25,80 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.producer.acks:all}")
+    private String acks;
+
+    @Value("${kafka.producer.enable-idempotence:true}")
+    private boolean enableIdempotence;
+
+    @Value("${kafka.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${kafka.producer.max-block-ms:5000}")
+    private long maxBlockMs;
+
+    @Value("${kafka.producer.request-timeout-ms:15000}")
+    private int requestTimeoutMs;
+
+    @Value("${kafka.producer.delivery-timeout-ms:30000}")
+    private int deliveryTimeoutMs;
+
+    @Value("${kafka.producer.value-format:json}")
+    private String valueFormat;
+
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
-        Map<String, Object> props = new HashMap<>();
-        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    public ProducerFactory<String, UserNotificationEvent> producerFactory(MeterRegistry meterRegistry) {
+        DefaultKafkaProducerFactory<String, UserNotificationEvent> factory =
+                new DefaultKafkaProducerFactory<>(producerProps(), new StringSerializer(), valueSerializer());
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, UserNotificationEvent> kafkaTemplate(ProducerFactory<String, UserNotificationEvent> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
 
-        return new DefaultKafkaProducerFactory<>(props);
+    // Snapshots are always JSON: consumers of the compacted topic rebuild state from it, not just react to it
+    @Bean
+    public ProducerFactory<String, UserSnapshot> snapshotProducerFactory(MeterRegistry meterRegistry) {
+        DefaultKafkaProducerFactory<String, UserSnapshot> factory = new DefaultKafkaProducerFactory<>(
+                producerProps(), new StringSerializer(), new JsonSerializer<UserSnapshot>().noTypeInfo());
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, UserSnapshot> snapshotKafkaTemplate(ProducerFactory<String, UserSnapshot> snapshotProducerFactory) {
+        return new KafkaTemplate<>(snapshotProducerFactory);
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ACKS_CONFIG, acks);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, enableIdempotence);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+        return props;
+    }
+
+    private Serializer<UserNotificationEvent> valueSerializer() {
+        return switch (valueFormat) {
+            case "binary" -> new UserNotificationEventSerializer();
+            case "json" -> new JsonSerializer<UserNotificationEvent>().noTypeInfo();
+            default -> throw new IllegalStateException("Unknown kafka.producer.value-format: " + valueFormat);
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package org.hiber.kafka.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+@Profile("!test")
+public class KafkaTopicConfig {
+
+    @Value("${kafka.topic.user-snapshots:user.snapshots}")
+    private String snapshotTopic;
+
+    @Value("${kafka.topic.user-snapshots.partitions:3}")
+    private int snapshotPartitions;
+
+    @Value("${kafka.topic.user-snapshots.delete-retention-ms:86400000}")
+    private long snapshotDeleteRetentionMs;
+
+    // Compaction keeps the latest snapshot per user id; tombstones survive delete-retention-ms,
+    // long enough for lagging consumers to see the delete before the key disappears
+    @Bean
+    public NewTopic userSnapshotTopic() {
+        return TopicBuilder.name(snapshotTopic)
+                .partitions(snapshotPartitions)
+                .compact()
+                .config(TopicConfig.DELETE_RETENTION_MS_CONFIG, String.valueOf(snapshotDeleteRetentionMs))
+                .build();
+    }
+}
@@ -1,5 +1,5 @@
 package org.hiber.kafka.dto;
 
 public enum OperationType {
-    CREATE, DELETE
+    CREATE, UPDATE, DELETE
 }
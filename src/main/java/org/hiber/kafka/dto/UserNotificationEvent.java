@@ -1,13 +1,35 @@
 package org.hiber.kafka.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
+/**
+ * Change notification for a user. Besides {@code operation} and {@code email} it carries the
+ * user's id and, for CREATE and UPDATE, the full state after the change, which is what
+ * {@link UserSnapshot} records on the compacted snapshot topic are built from. Fields that
+ * are not set are left out of the JSON, so events without them look exactly as before.
+ */
 @Getter
 @Setter
+@NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserNotificationEvent {
     OperationType operation;
     String email;
+    Long id;
+    String name;
+    Integer age;
+    LocalDateTime createdAt;
+    Long version;
+
+    public UserNotificationEvent(OperationType operation, String email) {
+        this.operation = operation;
+        this.email = email;
+    }
 }
@@ -0,0 +1,30 @@
+package org.hiber.kafka.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest state of a user on the compacted snapshot topic, keyed by the user id.
+ * A deleted user is a tombstone: the same key with a null value.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSnapshot {
+    Long id;
+    String name;
+    String email;
+    Integer age;
+    LocalDateTime createdAt;
+    Long version;
+
+    public static UserSnapshot of(UserNotificationEvent event) {
+        return new UserSnapshot(event.getId(), event.getName(), event.getEmail(), event.getAge(),
+                event.getCreatedAt(), event.getVersion());
+    }
+}
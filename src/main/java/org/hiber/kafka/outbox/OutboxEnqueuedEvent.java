@@ -0,0 +1,13 @@
+package org.hiber.kafka.outbox;
+
+/**
+ * Published when events are written to the outbox; the relay is woken up once the
+ * surrounding transaction commits.
+ */
+public final class OutboxEnqueuedEvent {
+
+    static final OutboxEnqueuedEvent INSTANCE = new OutboxEnqueuedEvent();
+
+    private OutboxEnqueuedEvent() {
+    }
+}
@@ -0,0 +1,187 @@
+package org.hiber.kafka.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hiber.entity.OutboxEvent;
+import org.hiber.kafka.dto.UserNotificationEvent;
+import org.hiber.kafka.producer.UserNotificationProducer;
+import org.hiber.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves committed outbox rows to Kafka on a dedicated thread. Request threads never touch the
+ * broker: they only write outbox rows, and after commit {@link #wakeUp()} hands the relay a
+ * lock-free signal, so events normally leave within one round trip instead of a poll interval.
+ * The poll interval remains as a safety net for rows written without a signal (bulk import,
+ * other instances).
+ *
+ * <p>When a batch fails the rows stay in the outbox and the relay backs off exponentially up to
+ * {@code max-backoff-ms}, ignoring wake-ups meanwhile, so a broker outage does not turn every
+ * write into another row-locking attempt that holds a connection for {@code max.block.ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserNotificationProducer notificationProducer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean signalled = new AtomicBoolean();
+    private volatile boolean running;
+    private volatile Thread worker;
+    private volatile long backoffMs;
+
+    @Value("${kafka.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${kafka.outbox.relay.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${kafka.outbox.relay.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       UserNotificationProducer notificationProducer,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.notificationProducer = notificationProducer;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("user.outbox.relay.backoff", this, relay -> relay.backoffMs)
+                .description("Current pause between relay attempts after failures, 0 while Kafka is reachable")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onEnqueued(OutboxEnqueuedEvent event) {
+        wakeUp();
+    }
+
+    public void wakeUp() {
+        signalled.set(true);
+        Thread current = worker;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread current = worker;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            if (drain()) {
+                backoffMs = 0;
+                pause(pollIntervalMs, true);
+            } else {
+                backoffMs = backoffMs == 0 ? pollIntervalMs : Math.min(backoffMs * 2, maxBackoffMs);
+                pause(backoffMs, false);
+                signalled.set(false);
+            }
+        }
+    }
+
+    // Parks in a loop: unpark permits left over from signals already consumed must not end the wait
+    private void pause(long millis, boolean wakeOnSignal) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining;
+        while (running && !(wakeOnSignal && signalled.getAndSet(false))
+                && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Relays batches until the outbox is empty; returns false if a batch failed.
+     */
+    public boolean drain() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("drain() - relay failed, events stay in outbox for retry: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockOldest(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<UserNotificationEvent> events = new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            events.add(fromJson(outboxEvent.getPayload()));
+            ids.add(outboxEvent.getId());
+        }
+
+        notificationProducer.sendBatch(events);
+        outboxEventRepository.deleteByIdIn(ids);
+        logger.debug("relayBatch() - relayed events count: {}", batch.size());
+        return batch.size();
+    }
+
+    private UserNotificationEvent fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, UserNotificationEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize outbox event", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.hiber.kafka.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hiber.entity.OutboxEvent;
+import org.hiber.kafka.dto.UserNotificationEvent;
+import org.hiber.repository.OutboxEventRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Component
+public class UserNotificationOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserNotificationOutbox(OutboxEventRepository outboxEventRepository,
+                                  ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(UserNotificationEvent event) {
+        outboxEventRepository.save(new OutboxEvent(event.getEmail(), toJson(event)));
+        eventPublisher.publishEvent(OutboxEnqueuedEvent.INSTANCE);
+    }
+
+    // Identity ids rule out Hibernate insert batching, so a batch is written with a single insert instead
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<UserNotificationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxEventRepository.insertAll(
+                events.stream().map(UserNotificationEvent::getEmail).toArray(String[]::new),
+                events.stream().map(this::toJson).toArray(String[]::new));
+        eventPublisher.publishEvent(OutboxEnqueuedEvent.INSTANCE);
+    }
+
+    private String toJson(UserNotificationEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event", e);
+        }
+    }
+}
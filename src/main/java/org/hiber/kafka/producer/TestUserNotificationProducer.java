@@ -1,19 +1,27 @@
 package org.hiber.kafka.producer;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.hiber.kafka.dto.UserNotificationEvent;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @Profile("test")
 public class TestUserNotificationProducer extends UserNotificationProducer {
 
-    public TestUserNotificationProducer() {
-        super(null, null);
+    public TestUserNotificationProducer(MeterRegistry meterRegistry) {
+        super(null, null, meterRegistry);
     }
 
     @Override
     public void send(UserNotificationEvent event) {
         // test
     }
+
+    @Override
+    public void sendBatch(List<UserNotificationEvent> events) {
+        // test
+    }
 }
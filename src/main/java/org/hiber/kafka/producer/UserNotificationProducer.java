@@ -1,35 +1,122 @@
 package org.hiber.kafka.producer;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hiber.kafka.dto.OperationType;
 import org.hiber.kafka.dto.UserNotificationEvent;
+import org.hiber.kafka.dto.UserSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
 @Component
 @Profile("!test")
 public class UserNotificationProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private static final Logger logger = LoggerFactory.getLogger(UserNotificationProducer.class);
+
+    private final KafkaTemplate<String, UserNotificationEvent> kafkaTemplate;
+
+    private final KafkaTemplate<String, UserSnapshot> snapshotTemplate;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer sendSuccess;
+    private final Timer sendFailure;
 
     @Value("${kafka.topic.user-notifications}")
     private String topic;
 
-    public UserNotificationProducer(KafkaTemplate<String, String> kafkaTemplate,
-                                    ObjectMapper objectMapper) {
+    @Value("${kafka.topic.user-snapshots:user.snapshots}")
+    private String snapshotTopic;
+
+    @Value("${kafka.producer.batch-ack-timeout-ms:30000}")
+    private long batchAckTimeoutMs;
+
+    public UserNotificationProducer(KafkaTemplate<String, UserNotificationEvent> kafkaTemplate,
+                                    KafkaTemplate<String, UserSnapshot> snapshotTemplate,
+                                    MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+        this.snapshotTemplate = snapshotTemplate;
+        this.sendSuccess = sendTimer(meterRegistry, "success");
+        this.sendFailure = sendTimer(meterRegistry, "failure");
+        Gauge.builder("user.notifications.in.flight", inFlight, AtomicInteger::get)
+                .description("Notification events sent and not yet acknowledged by the broker")
+                .register(meterRegistry);
     }
 
     public void send(UserNotificationEvent event) {
+        sendAsync(event, new ArrayList<>(2));
+    }
+
+    public void sendBatch(List<UserNotificationEvent> events) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(events.size() * 2);
+        for (UserNotificationEvent event : events) {
+            sendAsync(event, futures);
+        }
         try {
-            String json = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(topic, event.getEmail(), json);
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Failed to serialize event", e);
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(batchAckTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to send events", e);
         }
     }
+
+    /**
+     * Sends the notification keyed by email and, when the event carries the user id, the
+     * snapshot keyed by id: the full state for CREATE and UPDATE, a tombstone for DELETE.
+     * Events written to the outbox before ids were recorded only produce the notification.
+     */
+    private void sendAsync(UserNotificationEvent event, List<CompletableFuture<?>> futures) {
+        futures.add(track(topic, () -> kafkaTemplate.send(topic, event.getEmail(), event)));
+        if (event.getId() != null) {
+            UserSnapshot snapshot = event.getOperation() == OperationType.DELETE ? null : UserSnapshot.of(event);
+            String key = String.valueOf(event.getId());
+            futures.add(track(snapshotTopic, () -> snapshotTemplate.send(snapshotTopic, key, snapshot)));
+        }
+    }
+
+    private <T> CompletableFuture<T> track(String target, Supplier<CompletableFuture<T>> send) {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        CompletableFuture<T> future;
+        try {
+            future = send.get();
+        } catch (RuntimeException e) {
+            complete(target, start, e);
+            throw e;
+        }
+        return future.whenComplete((result, ex) -> complete(target, start, ex));
+    }
+
+    private void complete(String target, long start, Throwable ex) {
+        inFlight.decrementAndGet();
+        if (ex == null) {
+            sendSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else {
+            sendFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.warn("send - failed to deliver event to topic {}: {}", target, ex.getMessage());
+        }
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("user.notifications.send")
+                .description("Time from handing an event to the producer until the broker acknowledges it")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,56 @@
+package org.hiber.kafka.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.hiber.kafka.dto.OperationType;
+import org.hiber.kafka.dto.UserNotificationEvent;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the layout written by {@link UserNotificationEventSerializer}.
+ */
+public class UserNotificationEventDeserializer implements Deserializer<UserNotificationEvent> {
+
+    @Override
+    public UserNotificationEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < 3) {
+            throw new SerializationException("Truncated user notification event");
+        }
+        if (data[0] != UserNotificationEventSerializer.VERSION_1) {
+            throw new SerializationException("Unsupported user notification event version: " + data[0]);
+        }
+
+        OperationType operation = operation(data[1]);
+        int position = 2;
+        int emailLength = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position >= data.length || shift > 28) {
+                throw new SerializationException("Malformed email length");
+            }
+            b = data[position++];
+            emailLength |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        if (emailLength < 0 || position + emailLength != data.length) {
+            throw new SerializationException("Malformed email length");
+        }
+        String email = new String(data, position, emailLength, StandardCharsets.UTF_8);
+        return new UserNotificationEvent(operation, email);
+    }
+
+    private static OperationType operation(byte code) {
+        return switch (code) {
+            case UserNotificationEventSerializer.CREATE -> OperationType.CREATE;
+            case UserNotificationEventSerializer.DELETE -> OperationType.DELETE;
+            case UserNotificationEventSerializer.UPDATE -> OperationType.UPDATE;
+            default -> throw new SerializationException("Unknown operation code: " + code);
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package org.hiber.kafka.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.hiber.kafka.dto.OperationType;
+import org.hiber.kafka.dto.UserNotificationEvent;
+
+/**
+ * Compact binary layout of {@link UserNotificationEvent}:
+ * <pre>
+ * byte    format version (1)
+ * byte    operation code (1 = CREATE, 2 = DELETE, 3 = UPDATE)
+ * varint  email length in bytes, then the email in UTF-8
+ * </pre>
+ * The record is sized up front and encoded straight into a single array. Only operation and
+ * email are encoded; the user state travels on the snapshot topic, which is always JSON.
+ */
+public class UserNotificationEventSerializer implements Serializer<UserNotificationEvent> {
+
+    static final byte VERSION_1 = 1;
+
+    static final byte CREATE = 1;
+    static final byte DELETE = 2;
+    static final byte UPDATE = 3;
+
+    @Override
+    public byte[] serialize(String topic, UserNotificationEvent event) {
+        if (event == null) {
+            return null;
+        }
+        String email = event.getEmail();
+        if (email == null) {
+            throw new SerializationException("Event email must not be null");
+        }
+
+        int emailLength = utf8Length(email);
+        byte[] out = new byte[2 + varIntSize(emailLength) + emailLength];
+        out[0] = VERSION_1;
+        out[1] = operationCode(event.getOperation());
+        int position = writeVarInt(out, 2, emailLength);
+        writeUtf8(out, position, email);
+        return out;
+    }
+
+    static byte operationCode(OperationType operation) {
+        if (operation == null) {
+            throw new SerializationException("Event operation must not be null");
+        }
+        return switch (operation) {
+            case CREATE -> CREATE;
+            case DELETE -> DELETE;
+            case UPDATE -> UPDATE;
+        };
+    }
+
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    static int writeUtf8(byte[] out, int position, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out[position++] = (byte) c;
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xC0 | (c >> 6));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: a single '?', as String.getBytes(UTF_8) writes it
+                out[position++] = '?';
+            } else {
+                out[position++] = (byte) (0xE0 | (c >> 12));
+                out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static int writeVarInt(byte[] out, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+}
@@ -0,0 +1,200 @@
+package org.hiber.kafka.view;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.hiber.kafka.dto.UserSnapshot;
+import org.hiber.service.email.EmailMembershipIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Adds emails taken through other instances to the local {@link EmailMembershipIndex}: every
+ * instance tails the snapshot topic and adds the email of each user snapshot it reads.
+ *
+ * <p>Reading starts at the records written since this instance started (minus
+ * {@code replay-ms} for clock skew between instances), so together with the database rebuild done
+ * when the application is ready no create is missed; adding an email twice is harmless. Removals
+ * are not taken from the topic: a delete relayed late could otherwise drop an email re-created
+ * since, and a stale entry only costs a database check. An email taken elsewhere still looks
+ * available here until its snapshot arrives, i.e. for the outbox relay lag, or for as long as
+ * Kafka is unreachable.
+ */
+@Component
+@ConditionalOnProperty(name = "users.email-index.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class KafkaEmailIndexFeed implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaEmailIndexFeed.class);
+
+    private final EmailMembershipIndex emailIndex;
+    private final long startedAtMs = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka.topic.user-snapshots:user.snapshots}")
+    private String topic;
+
+    @Value("${users.email-index.kafka.poll-timeout-ms:500}")
+    private long pollTimeoutMs;
+
+    @Value("${users.email-index.kafka.replay-ms:60000}")
+    private long replayMs;
+
+    @Value("${users.email-index.kafka.retry-ms:5000}")
+    private long retryMs;
+
+    private volatile boolean running;
+    // Where the next connection starts reading: process start, then the last poll that found nothing left to read
+    private volatile long resumeFromMs = startedAtMs;
+    private volatile Consumer<String, UserSnapshot> consumer;
+    private Thread worker;
+
+    public KafkaEmailIndexFeed(EmailMembershipIndex emailIndex) {
+        this.emailIndex = emailIndex;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "kafka-email-index-feed");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Consumer<String, UserSnapshot> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Reconnects after a failure and replays from the last time it had caught up, so nothing is skipped
+    private void run() {
+        logger.debug("run() - started, topic: {}", topic);
+        while (running) {
+            try (Consumer<String, UserSnapshot> kafkaConsumer = createConsumer()) {
+                consumer = kafkaConsumer;
+                tail(kafkaConsumer);
+            } catch (WakeupException e) {
+                logger.debug("run() - stopped");
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("run() - snapshot feed failed, retrying in {} ms: {}", retryMs, e.getMessage());
+                try {
+                    Thread.sleep(retryMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                consumer = null;
+            }
+        }
+    }
+
+    private void tail(Consumer<String, UserSnapshot> kafkaConsumer) {
+        List<PartitionInfo> partitionInfos = kafkaConsumer.partitionsFor(topic);
+        if (partitionInfos == null || partitionInfos.isEmpty()) {
+            throw new IllegalStateException("topic " + topic + " not found");
+        }
+        List<TopicPartition> partitions = partitionInfos.stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .toList();
+        kafkaConsumer.assign(partitions);
+        seekToStart(kafkaConsumer, partitions);
+        logger.info("tail() - adding emails from {} partitions of {}", partitions.size(), topic);
+        while (running) {
+            poll(kafkaConsumer);
+        }
+    }
+
+    private void seekToStart(Consumer<String, UserSnapshot> kafkaConsumer, List<TopicPartition> partitions) {
+        long from = resumeFromMs - replayMs;
+        Map<TopicPartition, OffsetAndTimestamp> offsets = kafkaConsumer.offsetsForTimes(partitions.stream()
+                .collect(Collectors.toMap(Function.identity(), partition -> from)));
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp offset = offsets.get(partition);
+            if (offset != null) {
+                kafkaConsumer.seek(partition, offset.offset());
+            } else {
+                kafkaConsumer.seekToEnd(List.of(partition));
+            }
+        }
+    }
+
+    private void poll(Consumer<String, UserSnapshot> kafkaConsumer) {
+        ConsumerRecords<String, UserSnapshot> records;
+        long polledAtMs = System.currentTimeMillis();
+        try {
+            records = kafkaConsumer.poll(Duration.ofMillis(pollTimeoutMs));
+        } catch (RecordDeserializationException e) {
+            logger.warn("poll() - skipping unreadable snapshot at {}@{}: {}",
+                    e.topicPartition(), e.offset(), e.getMessage());
+            kafkaConsumer.seek(e.topicPartition(), e.offset() + 1);
+            return;
+        }
+        for (ConsumerRecord<String, UserSnapshot> record : records) {
+            UserSnapshot snapshot = record.value();
+            if (snapshot != null && snapshot.getEmail() != null) {
+                emailIndex.add(snapshot.getEmail());
+            }
+        }
+        if (records.isEmpty()) {
+            resumeFromMs = polledAtMs;
+        }
+    }
+
+    private Consumer<String, UserSnapshot> createConsumer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(UserSnapshot.class, false)).createConsumer();
+    }
+}
@@ -0,0 +1,280 @@
+package org.hiber.kafka.view;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.hiber.kafka.dto.UserSnapshot;
+import org.hiber.repository.projection.UserView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory {@code id -> user} view rebuilt from the compacted snapshot topic, so a read
+ * replica can answer lookups by id without Postgres.
+ *
+ * <p>On start it reads every partition from the beginning; once it has reached the end offsets
+ * seen at that moment the view is ready, and from then on it keeps tailing the topic. Partitions
+ * are assigned, not subscribed, so every instance reads the whole topic and nothing is committed.
+ * The view is eventually consistent: a change shows up once the outbox relay has published it,
+ * and a snapshot older than the version already held is ignored.
+ *
+ * <p>While tailing, the view keeps checking that it reaches the end offsets of the topic. If it
+ * has not been in sync for {@code max-staleness-ms} (Kafka unreachable, or the consumer falling
+ * behind) lookups go to the database until it catches up again. If the consumer fails, the view
+ * is dropped and rebuilt from the beginning after {@code retry-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "users.view.kafka.enabled", havingValue = "true")
+public class KafkaUserView implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaUserView.class);
+
+    private final Map<Long, UserView> users = new ConcurrentHashMap<>();
+    // Waited on between rebuild attempts, notified by stop()
+    private final Object retryPause = new Object();
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka.topic.user-snapshots:user.snapshots}")
+    private String topic;
+
+    @Value("${users.view.kafka.poll-timeout-ms:500}")
+    private long pollTimeoutMs;
+
+    @Value("${users.view.kafka.max-staleness-ms:10000}")
+    private long maxStalenessMs;
+
+    @Value("${users.view.kafka.retry-ms:5000}")
+    private long retryMs;
+
+    private volatile boolean running;
+    private volatile boolean ready;
+    // When the view last held everything written to the topic before that moment
+    private volatile long syncedAtMs;
+    // End offsets the consumer has to reach to be in sync as of syncCheckAtMs, null between checks
+    private Map<TopicPartition, Long> syncCheckOffsets;
+    private long syncCheckAtMs;
+    private volatile Consumer<String, UserSnapshot> consumer;
+    private Thread worker;
+
+    public KafkaUserView(MeterRegistry meterRegistry) {
+        Gauge.builder("user.view.size", users, Map::size)
+                .description("Users held by the Kafka-backed view")
+                .register(meterRegistry);
+        Gauge.builder("user.view.ready", this, view -> view.isReady() ? 1 : 0)
+                .description("1 while the view is in sync with the snapshot topic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The user as of the last snapshot read, or empty while the view is catching up, has not
+     * been in sync for {@code max-staleness-ms} or does not know the id.
+     */
+    public Optional<UserView> find(Long id) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(users.get(id));
+    }
+
+    public boolean isReady() {
+        return ready && System.currentTimeMillis() - syncedAtMs <= maxStalenessMs;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "kafka-user-view");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        ready = false;
+        Consumer<String, UserSnapshot> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        synchronized (retryPause) {
+            retryPause.notifyAll();
+        }
+        if (worker != null) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Rebuilds the view from the beginning after a failure; lookups go to the database meanwhile
+    private void run() {
+        logger.debug("run() - started, topic: {}", topic);
+        while (running) {
+            try (Consumer<String, UserSnapshot> kafkaConsumer = createConsumer()) {
+                consumer = kafkaConsumer;
+                rebuildAndTail(kafkaConsumer);
+            } catch (WakeupException | InterruptedException e) {
+                logger.debug("run() - stopped");
+                return;
+            } catch (RuntimeException e) {
+                ready = false;
+                if (!running) {
+                    return;
+                }
+                logger.warn("run() - view failed, lookups fall back to the database, rebuilding in {} ms: {}",
+                        retryMs, e.getMessage());
+                try {
+                    synchronized (retryPause) {
+                        if (running) {
+                            retryPause.wait(retryMs);
+                        }
+                    }
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                consumer = null;
+            }
+        }
+    }
+
+    private void rebuildAndTail(Consumer<String, UserSnapshot> kafkaConsumer) throws InterruptedException {
+        List<TopicPartition> partitions = awaitPartitions(kafkaConsumer);
+        kafkaConsumer.assign(partitions);
+        kafkaConsumer.seekToBeginning(partitions);
+        // A tombstone may have been compacted away since the last build, so nothing held can be kept
+        users.clear();
+        startSyncCheck(kafkaConsumer, partitions);
+        while (running) {
+            poll(kafkaConsumer);
+            checkSync(kafkaConsumer, partitions);
+        }
+    }
+
+    private void startSyncCheck(Consumer<String, UserSnapshot> kafkaConsumer, List<TopicPartition> partitions) {
+        syncCheckAtMs = System.currentTimeMillis();
+        syncCheckOffsets = kafkaConsumer.endOffsets(partitions, Duration.ofMillis(maxStalenessMs));
+    }
+
+    // Once the end offsets taken at the last check are reached the view is in sync as of that check;
+    // a new check starts once pollTimeoutMs has passed since then
+    private void checkSync(Consumer<String, UserSnapshot> kafkaConsumer, List<TopicPartition> partitions) {
+        if (syncCheckOffsets != null) {
+            if (!caughtUp(kafkaConsumer, syncCheckOffsets)) {
+                return;
+            }
+            syncedAtMs = syncCheckAtMs;
+            syncCheckOffsets = null;
+            if (!ready) {
+                ready = true;
+                logger.info("checkSync() - view is ready, users: {}", users.size());
+            }
+        }
+        if (System.currentTimeMillis() - syncedAtMs >= pollTimeoutMs) {
+            startSyncCheck(kafkaConsumer, partitions);
+        }
+    }
+
+    private void poll(Consumer<String, UserSnapshot> kafkaConsumer) {
+        ConsumerRecords<String, UserSnapshot> records;
+        try {
+            records = kafkaConsumer.poll(Duration.ofMillis(pollTimeoutMs));
+        } catch (RecordDeserializationException e) {
+            logger.warn("poll() - skipping unreadable snapshot at {}@{}: {}",
+                    e.topicPartition(), e.offset(), e.getMessage());
+            kafkaConsumer.seek(e.topicPartition(), e.offset() + 1);
+            return;
+        }
+        for (ConsumerRecord<String, UserSnapshot> record : records) {
+            apply(record);
+        }
+    }
+
+    void apply(ConsumerRecord<String, UserSnapshot> record) {
+        Long id = Long.valueOf(record.key());
+        UserSnapshot snapshot = record.value();
+        if (snapshot == null) {
+            users.remove(id);
+        } else {
+            users.merge(id, new UserView(id, snapshot.getName(), snapshot.getEmail(), snapshot.getAge(),
+                    snapshot.getCreatedAt(), snapshot.getVersion()), KafkaUserView::newer);
+        }
+    }
+
+    // A snapshot relayed out of order must not replace a later version of the same user
+    private static UserView newer(UserView current, UserView received) {
+        if (current.getVersion() != null && received.getVersion() != null
+                && received.getVersion() < current.getVersion()) {
+            logger.debug("apply() - skipping stale snapshot of user {}: version {} < {}",
+                    received.getId(), received.getVersion(), current.getVersion());
+            return current;
+        }
+        return received;
+    }
+
+    private List<TopicPartition> awaitPartitions(Consumer<String, UserSnapshot> kafkaConsumer) throws InterruptedException {
+        while (running) {
+            List<PartitionInfo> partitions = kafkaConsumer.partitionsFor(topic);
+            if (partitions != null && !partitions.isEmpty()) {
+                return partitions.stream().map(info -> new TopicPartition(topic, info.partition())).toList();
+            }
+            logger.warn("awaitPartitions() - topic {} not found yet, retrying", topic);
+            Thread.sleep(pollTimeoutMs);
+        }
+        throw new InterruptedException("stopped before topic " + topic + " appeared");
+    }
+
+    private static boolean caughtUp(Consumer<String, UserSnapshot> kafkaConsumer, Map<TopicPartition, Long> catchUpTo) {
+        for (Map.Entry<TopicPartition, Long> end : catchUpTo.entrySet()) {
+            if (kafkaConsumer.position(end.getKey()) < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Consumer<String, UserSnapshot> createConsumer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(UserSnapshot.class, false)).createConsumer();
+    }
+}
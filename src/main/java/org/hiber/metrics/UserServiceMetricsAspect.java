@@ -0,0 +1,86 @@
+package org.hiber.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hiber.service.exceptions.BusinessException;
+import org.hiber.service.exceptions.EmailAlreadyExistsException;
+import org.hiber.service.exceptions.UserNotFoundException;
+import org.hiber.service.exceptions.UserVersionMismatchException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UserServiceMetricsAspect {
+
+    public static final String TIMER_NAME = "user.service";
+
+    static final String OK = "ok";
+    static final String NOT_FOUND = "not_found";
+    static final String CONFLICT = "conflict";
+    static final String VALIDATION = "validation";
+    static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    // method name -> outcome -> timer; both keys are existing strings, so a lookup allocates nothing
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    public UserServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * org.hiber.service.UserService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = OK;
+            return result;
+        } catch (Throwable ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            timer(method, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String method, String outcome) {
+        ConcurrentMap<String, Timer> byOutcome = timers.get(method);
+        Timer timer = byOutcome == null ? null : byOutcome.get(outcome);
+        return timer != null ? timer : register(method, outcome);
+    }
+
+    // Only on the first call per method and outcome: the capturing lambdas below allocate
+    private Timer register(String method, String outcome) {
+        return timers.computeIfAbsent(method, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, key -> Timer.builder(TIMER_NAME)
+                        .description("Latency of UserService operations")
+                        .tag("method", method)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+    }
+
+    static String outcome(Throwable ex) {
+        if (ex instanceof UserNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (ex instanceof EmailAlreadyExistsException || ex instanceof UserVersionMismatchException) {
+            return CONFLICT;
+        }
+        if (ex instanceof BusinessException) {
+            return VALIDATION;
+        }
+        return ERROR;
+    }
+}
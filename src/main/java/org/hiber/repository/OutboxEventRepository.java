@@ -0,0 +1,37 @@
+package org.hiber.repository;
+
+import org.hiber.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query(value = """
+                select *
+                  from user_outbox
+                 order by id
+                 limit :limit
+                   for update
+            """, nativeQuery = true)
+    List<OutboxEvent> lockOldest(@Param("limit") int limit);
+
+    // One statement for the whole batch: the identity ids follow the order of the arrays
+    @Modifying
+    @Query(value = """
+                insert into user_outbox (event_key, payload, created_at)
+                select e.event_key, e.payload, localtimestamp
+                  from unnest(cast(:eventKeys as text[]), cast(:payloads as text[]))
+                       with ordinality as e(event_key, payload, position)
+                 order by e.position
+            """, nativeQuery = true)
+    int insertAll(@Param("eventKeys") String[] eventKeys, @Param("payloads") String[] payloads);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
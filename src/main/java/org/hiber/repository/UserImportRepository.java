@@ -0,0 +1,13 @@
+package org.hiber.repository;
+
+import org.hiber.repository.importing.StagedConflict;
+import org.hiber.repository.importing.UserStagingWriter;
+
+import java.util.function.Consumer;
+
+public interface UserImportRepository {
+
+    long copyToStaging(Consumer<UserStagingWriter> rows);
+
+    void mergeStaged(Consumer<StagedConflict> conflicts);
+}
@@ -0,0 +1,143 @@
+package org.hiber.repository;
+
+import org.hiber.repository.importing.StagedConflict;
+import org.hiber.repository.importing.UserStagingWriter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.function.Consumer;
+
+public class UserImportRepositoryImpl implements UserImportRepository {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final int CONFLICT_FETCH_SIZE = 1000;
+
+    private static final String CREATE_STAGING = """
+                create temp table users_import (
+                    row_number bigint not null,
+                    name text not null,
+                    email text not null,
+                    age integer
+                ) on commit drop
+            """;
+
+    private static final String COPY_STAGING =
+            "copy users_import (row_number, name, email, age) from stdin with (format csv)";
+
+    // First row per email wins; rows that were not inserted come back as conflicts
+    private static final String MERGE_STAGED = """
+                with candidates as (
+                    select distinct on (email) row_number, name, email, age
+                      from users_import
+                     order by email, row_number
+                ), inserted as (
+                    insert into users (id, name, email, age, created_at, version)
+                    select nextval('users_id_seq'), name, email, age, localtimestamp, 0
+                      from candidates
+                     order by row_number
+                    on conflict (email) do nothing
+                    returning id, name, email, age, created_at, version
+                ), notified as (
+                    insert into user_outbox (event_key, payload, created_at)
+                    select email,
+                           json_strip_nulls(json_build_object('operation', 'CREATE', 'email', email, 'id', id,
+                                   'name', name, 'age', age, 'createdAt', created_at, 'version', version))::text,
+                           localtimestamp
+                      from inserted
+                )
+                select s.row_number, s.email, c.row_number is null as duplicate
+                  from users_import s
+                  left join candidates c on c.row_number = s.row_number
+                 where not exists (select 1 from inserted i where i.email = c.email)
+                 order by s.row_number
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserImportRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long copyToStaging(Consumer<UserStagingWriter> rows) {
+        jdbcTemplate.execute(CREATE_STAGING);
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            PGCopyOutputStream copy = new PGCopyOutputStream(
+                    connection.unwrap(PGConnection.class), COPY_STAGING, COPY_BUFFER_SIZE);
+            try {
+                Writer out = new OutputStreamWriter(copy, StandardCharsets.UTF_8);
+                rows.accept(new CsvStagingWriter(out));
+                out.flush();
+                return copy.endCopy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        });
+        return copied == null ? 0 : copied;
+    }
+
+    @Override
+    public void mergeStaged(Consumer<StagedConflict> conflicts) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MERGE_STAGED);
+            statement.setFetchSize(CONFLICT_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> conflicts.accept(new StagedConflict(
+                rs.getLong("row_number"),
+                rs.getString("email"),
+                rs.getBoolean("duplicate"))));
+    }
+
+    private static final class CsvStagingWriter implements UserStagingWriter {
+
+        private final Writer out;
+
+        private CsvStagingWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(long row, String name, String email, Integer age) {
+            try {
+                out.write(Long.toString(row));
+                out.write(',');
+                writeQuoted(name);
+                out.write(',');
+                writeQuoted(email);
+                out.write(',');
+                if (age != null) {
+                    out.write(Integer.toString(age));
+                }
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeQuoted(String value) throws IOException {
+            out.write('"');
+            int start = 0;
+            for (int i = value.indexOf('"'); i >= 0; i = value.indexOf('"', start)) {
+                out.write(value, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+            out.write(value, start, value.length() - start);
+            out.write('"');
+        }
+    }
+}
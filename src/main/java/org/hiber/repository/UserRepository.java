@@ -1,27 +1,79 @@
 package org.hiber.repository;
 
+import jakarta.persistence.QueryHint;
 import org.hiber.entity.User;
+import org.hiber.repository.projection.UserView;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository, UserImportRepository {
+
+    String VIEW_SELECT = "select new org.hiber.repository.projection.UserView("
+            + "u.id, u.name, u.email, u.age, u.createdAt, u.version) from User u";
 
     Optional<User> findByEmail(String email);
 
-    @Modifying
-    @Query("""
-                update User u
-                   set u.name = :name,
-                       u.email = :email,
-                       u.age = :age
-                 where u.id = :id
-            """)
-    int updateIfExists(@Param("id") Long id,
-                       @Param("name") String name,
-                       @Param("email") String email,
-                       @Param("age") Integer age);
+    boolean existsByEmail(String email);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("select u.email from User u")
+    Stream<String> streamAllEmails();
+
+    @Query(value = """
+                insert into users (id, name, email, age, created_at, version)
+                values (nextval('users_id_seq'), :name, :email, :age, localtimestamp, 0)
+                on conflict (email) do nothing
+                returning *
+            """, nativeQuery = true)
+    Optional<User> insertIfEmailAbsent(@Param("name") String name,
+                                       @Param("email") String email,
+                                       @Param("age") Integer age);
+
+    @Query(value = "delete from users where id = :id returning email", nativeQuery = true)
+    Optional<String> deleteByIdReturningEmail(@Param("id") Long id);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query(VIEW_SELECT + " where u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW_SELECT)
+    List<UserView> findAllViews();
+
+    @Query(VIEW_SELECT + " where u.id > :afterId order by u.id")
+    List<UserView> findViewsAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW_SELECT + " where u.id > :afterId order by u.id")
+    Stream<UserView> streamViewsAfterId(@Param("afterId") Long afterId);
+
+    @Query(value = """
+                update users
+                   set name = :name,
+                       email = :email,
+                       age = :age,
+                       version = version + 1
+                 where id = :id
+                   and (cast(:version as bigint) is null or version = :version)
+                returning *
+            """, nativeQuery = true)
+    Optional<User> updateIfExists(@Param("id") Long id,
+                                  @Param("name") String name,
+                                  @Param("email") String email,
+                                  @Param("age") Integer age,
+                                  @Param("version") Long version);
 }
@@ -0,0 +1,13 @@
+package org.hiber.repository;
+
+import org.hiber.repository.projection.UserView;
+import org.hiber.repository.search.UserFilter;
+import org.hiber.repository.search.UserKey;
+import org.hiber.repository.search.UserSort;
+
+import java.util.List;
+
+public interface UserSearchRepository {
+
+    List<UserView> search(UserFilter filter, UserSort sort, UserKey after, int limit);
+}
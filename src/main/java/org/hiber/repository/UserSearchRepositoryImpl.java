@@ -0,0 +1,127 @@
+package org.hiber.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hiber.entity.User;
+import org.hiber.repository.projection.UserView;
+import org.hiber.repository.search.UserFilter;
+import org.hiber.repository.search.UserKey;
+import org.hiber.repository.search.UserSort;
+import org.hiber.repository.search.UserSortField;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserView> search(UserFilter filter, UserSort sort, UserKey after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserView> query = cb.createQuery(UserView.class);
+        Root<User> user = query.from(User.class);
+        query.select(cb.construct(UserView.class,
+                user.get("id"),
+                user.get("name"),
+                user.get("email"),
+                user.get("age"),
+                user.get("createdAt"),
+                user.get("version")));
+
+        List<Predicate> predicates = filterPredicates(cb, user, filter);
+        if (after != null) {
+            predicates.add(afterKey(cb, user, sort, after));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(orderBy(cb, user, sort));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<User> user, UserFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getName() != null && !filter.getName().isEmpty()) {
+            String escaped = escapeLike(filter.getName().toLowerCase(Locale.ROOT));
+            String pattern = filter.getNameMatch() == UserFilter.NameMatch.CONTAINS
+                    ? "%" + escaped + "%"
+                    : escaped + "%";
+            predicates.add(cb.like(cb.lower(user.get("name")), pattern, '\\'));
+        }
+        if (filter.getMinAge() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(user.get("age"), filter.getMinAge()));
+        }
+        if (filter.getMaxAge() != null) {
+            predicates.add(cb.lessThanOrEqualTo(user.get("age"), filter.getMaxAge()));
+        }
+        if (filter.getCreatedAfter() != null) {
+            predicates.add(cb.greaterThan(user.get("createdAt"), filter.getCreatedAfter()));
+        }
+        return predicates;
+    }
+
+    private static List<Order> orderBy(CriteriaBuilder cb, Root<User> user, UserSort sort) {
+        Path<Long> id = user.get("id");
+        if (sort.getField() == UserSortField.ID) {
+            return List.of(sort.isDescending() ? cb.desc(id) : cb.asc(id));
+        }
+        Path<Object> value = user.get(sort.getField().getAttribute());
+        return sort.isDescending()
+                ? List.of(cb.desc(value), cb.desc(id))
+                : List.of(cb.asc(value), cb.asc(id));
+    }
+
+    // Keyset position (value, id). The leading >= / <= on the sort column gives the
+    // (column, id) index a range start; nullable columns follow Postgres ordering,
+    // where NULLs sort last ascending and first descending.
+    private static Predicate afterKey(CriteriaBuilder cb, Root<User> user, UserSort sort, UserKey after) {
+        Path<Long> id = user.get("id");
+        boolean desc = sort.isDescending();
+        Predicate idAfter = desc ? cb.lessThan(id, after.getId()) : cb.greaterThan(id, after.getId());
+        UserSortField field = sort.getField();
+        if (field == UserSortField.ID) {
+            return idAfter;
+        }
+        if (after.getValue() == null) {
+            Predicate inNulls = cb.and(cb.isNull(user.get(field.getAttribute())), idAfter);
+            return desc ? cb.or(inNulls, cb.isNotNull(user.get(field.getAttribute()))) : inNulls;
+        }
+        Predicate keyset = switch (field) {
+            case NAME -> compare(cb, user.get("name"), (String) after.getValue(), idAfter, desc);
+            case AGE -> compare(cb, user.get("age"), (Integer) after.getValue(), idAfter, desc);
+            case CREATED_AT -> compare(cb, user.get("createdAt"), (LocalDateTime) after.getValue(), idAfter, desc);
+            default -> throw new IllegalStateException("Unexpected sort field: " + field);
+        };
+        return field.isNullable() && !desc
+                ? cb.or(keyset, cb.isNull(user.get(field.getAttribute())))
+                : keyset;
+    }
+
+    private static <T extends Comparable<? super T>> Predicate compare(CriteriaBuilder cb,
+                                                                       Path<T> path,
+                                                                       T value,
+                                                                       Predicate idAfter,
+                                                                       boolean desc) {
+        if (desc) {
+            return cb.and(cb.lessThanOrEqualTo(path, value), cb.or(cb.lessThan(path, value), idAfter));
+        }
+        return cb.and(cb.greaterThanOrEqualTo(path, value), cb.or(cb.greaterThan(path, value), idAfter));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
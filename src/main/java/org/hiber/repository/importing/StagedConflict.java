@@ -0,0 +1,12 @@
+package org.hiber.repository.importing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StagedConflict {
+    private final long row;
+    private final String email;
+    private final boolean duplicate;
+}
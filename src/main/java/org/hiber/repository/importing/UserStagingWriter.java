@@ -0,0 +1,7 @@
+package org.hiber.repository.importing;
+
+@FunctionalInterface
+public interface UserStagingWriter {
+
+    void write(long row, String name, String email, Integer age);
+}
@@ -0,0 +1,17 @@
+package org.hiber.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class UserView {
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final Integer age;
+    private final LocalDateTime createdAt;
+    private final Long version;
+}
@@ -0,0 +1,28 @@
+package org.hiber.repository.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class UserFilter {
+
+    public static final UserFilter NONE = new UserFilter(null, NameMatch.PREFIX, null, null, null);
+
+    private final String name;
+    private final NameMatch nameMatch;
+    private final Integer minAge;
+    private final Integer maxAge;
+    private final LocalDateTime createdAfter;
+
+    public boolean isEmpty() {
+        return (name == null || name.isEmpty()) && minAge == null && maxAge == null && createdAfter == null;
+    }
+
+    public enum NameMatch {
+        PREFIX,
+        CONTAINS
+    }
+}
@@ -0,0 +1,11 @@
+package org.hiber.repository.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserKey {
+    private final Object value;
+    private final long id;
+}
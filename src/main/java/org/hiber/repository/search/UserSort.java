@@ -0,0 +1,22 @@
+package org.hiber.repository.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserSort {
+
+    public static final UserSort DEFAULT = new UserSort(UserSortField.ID, false);
+
+    private final UserSortField field;
+    private final boolean descending;
+
+    public boolean isDefault() {
+        return field == UserSortField.ID && !descending;
+    }
+
+    public String toParam() {
+        return descending ? "-" + field.getAttribute() : field.getAttribute();
+    }
+}
@@ -0,0 +1,34 @@
+package org.hiber.repository.search;
+
+import org.hiber.repository.projection.UserView;
+
+import java.util.function.Function;
+
+public enum UserSortField {
+    ID("id", false, UserView::getId),
+    NAME("name", false, UserView::getName),
+    AGE("age", true, UserView::getAge),
+    CREATED_AT("createdAt", false, UserView::getCreatedAt);
+
+    private final String attribute;
+    private final boolean nullable;
+    private final Function<UserView, Object> accessor;
+
+    UserSortField(String attribute, boolean nullable, Function<UserView, Object> accessor) {
+        this.attribute = attribute;
+        this.nullable = nullable;
+        this.accessor = accessor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public Object valueOf(UserView user) {
+        return accessor.apply(user);
+    }
+}
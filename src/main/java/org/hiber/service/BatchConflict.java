@@ -0,0 +1,11 @@
+package org.hiber.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BatchConflict {
+    private final int index;
+    private final String email;
+}
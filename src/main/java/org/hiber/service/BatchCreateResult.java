@@ -0,0 +1,14 @@
+package org.hiber.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hiber.entity.User;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BatchCreateResult {
+    private final List<User> created;
+    private final List<BatchConflict> conflicts;
+}
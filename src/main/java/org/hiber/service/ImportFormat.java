@@ -0,0 +1,6 @@
+package org.hiber.service;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,16 @@
+package org.hiber.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ImportResult {
+    private final long received;
+    private final long imported;
+    private final long rejected;
+    private final long conflicts;
+    private final List<ImportRowError> errors;
+}
@@ -0,0 +1,12 @@
+package org.hiber.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ImportRowError {
+    private final long row;
+    private final String email;
+    private final String message;
+}
@@ -0,0 +1,7 @@
+package org.hiber.service;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+    ImportResult importUsers(InputStream input, ImportFormat format);
+}
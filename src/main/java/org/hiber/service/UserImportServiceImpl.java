@@ -0,0 +1,145 @@
+package org.hiber.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hiber.api.dto.UserRequestDto;
+import org.hiber.repository.UserRepository;
+import org.hiber.repository.importing.StagedConflict;
+import org.hiber.repository.importing.UserStagingWriter;
+import org.hiber.service.email.EmailMembershipIndex;
+import org.hiber.service.exceptions.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Transactional
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final EmailMembershipIndex emailIndex;
+    private final Validator validator;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+
+    @Value("${users.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    public UserImportServiceImpl(UserRepository userRepository, EmailMembershipIndex emailIndex,
+                                 Validator validator, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.emailIndex = emailIndex;
+        this.validator = validator;
+        this.ndjsonReader = objectMapper.readerFor(UserRequestDto.class);
+        this.csvReader = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build()
+                .readerFor(UserRequestDto.class)
+                .with(CsvSchema.emptySchema().withHeader());
+    }
+
+    @Override
+    public ImportResult importUsers(InputStream input, ImportFormat format) {
+        logger.debug("importUsers(InputStream input, ImportFormat format) - started, format: {}", format);
+        ImportErrors errors = new ImportErrors(maxReportedErrors);
+
+        long staged = userRepository.copyToStaging(staging -> readRows(input, format, staging, errors));
+        userRepository.mergeStaged(errors::conflict);
+
+        long imported = staged - errors.conflicts;
+        logger.info("importUsers(InputStream input, ImportFormat format) - successful exiting, received: {}, "
+                + "imported: {}, rejected: {}, conflicts: {}", errors.received, imported, errors.rejected, errors.conflicts);
+        return new ImportResult(errors.received, imported, errors.rejected, errors.conflicts, errors.reported);
+    }
+
+    private void readRows(InputStream input, ImportFormat format, UserStagingWriter staging, ImportErrors errors) {
+        ObjectReader reader = format == ImportFormat.CSV ? csvReader : ndjsonReader;
+        try (MappingIterator<UserRequestDto> rows = reader.readValues(input)) {
+            while (rows.hasNextValue()) {
+                long row = ++errors.received;
+                UserRequestDto dto;
+                try {
+                    dto = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    errors.reject(row, null, e.getOriginalMessage());
+                    continue;
+                }
+                String violation = firstViolation(dto);
+                if (violation != null) {
+                    errors.reject(row, dto.getEmail(), violation);
+                    continue;
+                }
+                staging.write(row, dto.getName(), dto.getEmail(), dto.getAge());
+                // Conflicting rows end up in the index too; that only costs a database check later
+                emailIndex.add(dto.getEmail());
+            }
+        } catch (JsonProcessingException e) {
+            logger.error("readRows(InputStream input, ImportFormat format) - malformed {} input at row {}", format, errors.received);
+            throw new BusinessException("Malformed " + format + " input at row " + errors.received, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String firstViolation(UserRequestDto dto) {
+        String first = null;
+        for (ConstraintViolation<UserRequestDto> violation : validator.validate(dto)) {
+            String message = violation.getPropertyPath() + " " + violation.getMessage();
+            if (first == null || message.compareTo(first) < 0) {
+                first = message;
+            }
+        }
+        return first;
+    }
+
+    private static final class ImportErrors {
+
+        private final int maxReported;
+        private final List<ImportRowError> reported = new ArrayList<>();
+        private long received;
+        private long rejected;
+        private long conflicts;
+
+        private ImportErrors(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        private void reject(long row, String email, String message) {
+            rejected++;
+            report(new ImportRowError(row, email, message));
+        }
+
+        private void conflict(StagedConflict conflict) {
+            conflicts++;
+            report(new ImportRowError(conflict.getRow(), conflict.getEmail(),
+                    conflict.isDuplicate() ? "Email is duplicated in the import" : "Email already exists"));
+        }
+
+        private void report(ImportRowError error) {
+            if (reported.size() < maxReported) {
+                reported.add(error);
+            }
+        }
+    }
+}
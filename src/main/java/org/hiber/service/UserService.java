@@ -1,17 +1,35 @@
 package org.hiber.service;
 
 import org.hiber.entity.User;
+import org.hiber.repository.projection.UserView;
+import org.hiber.repository.search.UserFilter;
+import org.hiber.repository.search.UserKey;
+import org.hiber.repository.search.UserSort;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserService {
     User create(User user);
 
-    User findById(Long id);
+    BatchCreateResult createAll(List<User> users);
 
-    List<User> findAll();
+    UserView findById(Long id);
+
+    List<UserView> findAll();
+
+    List<UserView> findPage(Long afterId, int limit);
+
+    List<UserView> search(UserFilter filter, UserSort sort, UserKey after, int limit);
+
+    void streamAll(Long afterId, Consumer<UserView> action);
+
+    boolean isEmailAvailable(String email);
 
     User update(User user);
 
+    Long matchVersion(Long id, Set<Long> versions);
+
     void deleteById(Long id);
 }
@@ -1,104 +1,253 @@
 package org.hiber.service;
 
 import org.hiber.entity.User;
+import org.hiber.kafka.view.KafkaUserView;
 import org.hiber.repository.UserRepository;
+import org.hiber.repository.projection.UserView;
+import org.hiber.repository.search.UserFilter;
+import org.hiber.repository.search.UserKey;
+import org.hiber.repository.search.UserSort;
+import org.hiber.service.email.EmailMembershipIndex;
 import org.hiber.service.exceptions.BusinessException;
 import org.hiber.service.exceptions.EmailAlreadyExistsException;
 import org.hiber.service.exceptions.UserNotFoundException;
+import org.hiber.service.exceptions.UserVersionMismatchException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import org.hiber.kafka.dto.OperationType;
 import org.hiber.kafka.dto.UserNotificationEvent;
-import org.hiber.kafka.producer.UserNotificationProducer;
+import org.hiber.kafka.outbox.UserNotificationOutbox;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class UserServiceImpl implements UserService {
 
-    private final UserNotificationProducer notificationProducer;
+    public static final String USERS_CACHE = "users";
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final UserNotificationOutbox notificationOutbox;
 
     private final UserRepository userRepository;
 
+    private final EmailMembershipIndex emailIndex;
+
+    private final ObjectProvider<KafkaUserView> kafkaUserView;
+
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
-    public UserServiceImpl(UserRepository userRepository, UserNotificationProducer notificationProducer) {
+    public UserServiceImpl(UserRepository userRepository,
+                           UserNotificationOutbox notificationOutbox,
+                           EmailMembershipIndex emailIndex,
+                           ObjectProvider<KafkaUserView> kafkaUserView) {
         this.userRepository = userRepository;
-        this.notificationProducer = notificationProducer;
+        this.notificationOutbox = notificationOutbox;
+        this.emailIndex = emailIndex;
+        this.kafkaUserView = kafkaUserView;
     }
 
     @Override
     public User create(User user) {
-        logger.debug("create(User user) - started: {}", user);
+        logger.debug("create(User user) - started");
         validateUser(user);
 
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            logger.warn("create(User user) - Email already exists: {}", user.getEmail());
-            throw new EmailAlreadyExistsException(user.getEmail());
-        }
+        User created = userRepository.insertIfEmailAbsent(user.getName(), user.getEmail(), user.getAge())
+                .orElseThrow(() -> {
+                    logger.warn("create(User user) - Email already exists: {}", user.getEmail());
+                    return new EmailAlreadyExistsException(user.getEmail());
+                });
+        emailIndex.add(created.getEmail());
+        notificationOutbox.enqueue(event(OperationType.CREATE, created));
+        logger.info("create(User user) - successful exiting, id: {}", created.getId());
+        return created;
+    }
 
-        userRepository.save(user);
-        logger.info("create(User user) - successful exiting: {}", user);
+    @Override
+    public BatchCreateResult createAll(List<User> users) {
+        logger.debug("createAll(List<User> users) - started, size: {}", users == null ? null : users.size());
+        validateBatch(users);
+        users.forEach(this::validateUser);
+
+        Set<String> existing = userRepository.findExistingEmails(users.stream().map(User::getEmail).toList());
+        Set<String> accepted = new HashSet<>();
+        List<User> toSave = new ArrayList<>(users.size());
+        List<BatchConflict> conflicts = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (existing.contains(user.getEmail()) || !accepted.add(user.getEmail())) {
+                conflicts.add(new BatchConflict(i, user.getEmail()));
+            } else {
+                toSave.add(user);
+            }
+        }
 
-        notificationProducer.send(new UserNotificationEvent(OperationType.CREATE, user.getEmail()));
-        logger.info("notificationProducer send CREATE message");
-        return user;
+        List<User> created = userRepository.saveAll(toSave);
+        emailIndex.addAll(created.stream().map(User::getEmail).toList());
+        notificationOutbox.enqueueAll(created.stream()
+                .map(user -> event(OperationType.CREATE, user))
+                .toList());
+        logger.info("createAll(List<User> users) - successful exiting, created: {}, conflicts: {}",
+                created.size(), conflicts.size());
+        return new BatchCreateResult(created, conflicts);
     }
 
+    // SUPPORTS: a hit in the Kafka-backed view must not take a database connection.
+    // The cache is bypassed while the view answers: a view hit lags the database, and caching it after
+    // the write has already evicted the id would keep the old version for the whole TTL
     @Override
-    @Transactional(readOnly = true)
-    public User findById(Long id) {
-        logger.debug("public User findById(Long id) - started, id: {}", id);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Cacheable(cacheNames = USERS_CACHE, key = "#id",
+            condition = "!#root.target.isViewServing()", unless = "#root.target.isViewServing()")
+    public UserView findById(Long id) {
+        logger.debug("public UserView findById(Long id) - started, id: {}", id);
         validateId(id);
-        return userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
+        KafkaUserView view = kafkaUserView.getIfAvailable();
+        if (view != null) {
+            Optional<UserView> fromView = view.find(id);
+            if (fromView.isPresent()) {
+                return fromView.get();
+            }
+        }
+        return userRepository.findViewById(id).orElseThrow(() -> new UserNotFoundException(id));
+    }
+
+    public boolean isViewServing() {
+        KafkaUserView view = kafkaUserView.getIfAvailable();
+        return view != null && view.isReady();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<User> findAll() {
-        logger.debug("public List<User> findAll() - started");
-        List<User> result = userRepository.findAll();
-        logger.debug("public List<User> findAll() - exiting users count: {}", result.size());
+    public List<UserView> findAll() {
+        logger.debug("public List<UserView> findAll() - started");
+        List<UserView> result = userRepository.findAllViews();
+        logger.debug("public List<UserView> findAll() - exiting users count: {}", result.size());
         return result;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<UserView> findPage(Long afterId, int limit) {
+        logger.debug("findPage(Long afterId, int limit) - started, afterId: {}, limit: {}", afterId, limit);
+        validateLimit(limit);
+        long from = afterId == null ? 0L : afterId;
+        return userRepository.findViewsAfterId(from, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserView> search(UserFilter filter, UserSort sort, UserKey after, int limit) {
+        logger.debug("search(UserFilter filter, UserSort sort, UserKey after, int limit) - started, sort: {}, limit: {}",
+                sort.toParam(), limit);
+        validateLimit(limit);
+        validateFilter(filter);
+        return userRepository.search(filter, sort, after, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Long afterId, Consumer<UserView> action) {
+        logger.debug("streamAll(Long afterId, Consumer<UserView> action) - started, afterId: {}", afterId);
+        long count = 0;
+        long from = afterId == null ? 0L : afterId;
+        try (Stream<UserView> users = userRepository.streamViewsAfterId(from)) {
+            for (UserView user : (Iterable<UserView>) users::iterator) {
+                action.accept(user);
+                count++;
+            }
+        }
+        logger.debug("streamAll(Long afterId, Consumer<UserView> action) - exiting users count: {}", count);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public boolean isEmailAvailable(String email) {
+        logger.debug("isEmailAvailable(String email) - started");
+        if (email == null || email.isBlank()) {
+            logger.error("isEmailAvailable(String email) - email == (null or empty)");
+            throw new BusinessException("Email is required");
+        }
+        if (emailIndex.lookup(email) != EmailMembershipIndex.Membership.POSSIBLE) {
+            return true;
+        }
+        return !userRepository.existsByEmail(email);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#user.id")
     public User update(User user) {
-        logger.debug("update(User user) - started: {}", user);
+        logger.debug("update(User user) - started");
         validateUser(user);
         validateId(user.getId());
 
-        int updated = userRepository.updateIfExists(
+        User updated = userRepository.updateIfExists(
                 user.getId(),
                 user.getName(),
                 user.getEmail(),
-                user.getAge()
-        );
-
-        if (updated == 0) {
+                user.getAge(),
+                user.getVersion()
+        ).orElseThrow(() -> {
+            if (user.getVersion() != null && userRepository.existsById(user.getId())) {
+                logger.debug("update - fails, version mismatch. id={}, expected={}", user.getId(), user.getVersion());
+                return new UserVersionMismatchException(user.getId(), user.getVersion());
+            }
             logger.debug("update - fails, user not found. id={}", user.getId());
-        } else {
-            logger.info("update(User user) - successful exiting: {}", user);
-        }
+            return new UserNotFoundException(user.getId());
+        });
+        emailIndex.add(updated.getEmail());
+        notificationOutbox.enqueue(event(OperationType.UPDATE, updated));
+        logger.info("update(User user) - successful exiting, id: {}", updated.getId());
+        return updated;
+    }
 
-        return user;
+    // Runs on the primary: the version a replica reports may already be outdated. The update that follows
+    // still compares the version atomically, so a change in between ends in a mismatch, not a lost update
+    @Override
+    public Long matchVersion(Long id, Set<Long> versions) {
+        logger.debug("matchVersion(Long id, Set<Long> versions) - started, id: {}, versions: {}", id, versions);
+        validateId(id);
+        Long current = userRepository.findVersionById(id).orElseThrow(() -> new UserNotFoundException(id));
+        if (!versions.contains(current)) {
+            logger.debug("matchVersion - fails, version mismatch. id={}, current={}", id, current);
+            throw new UserVersionMismatchException(id, versions);
+        }
+        return current;
     }
 
     @Override
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#id")
     public void deleteById(Long id) {
         logger.debug("deleteById(Long id) - started, id: {}", id);
         validateId(id);
-        User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException(id));
-        String email = user.getEmail();
-        logger.info("User has been found and his email has been received: {}", email);
-        userRepository.delete(user);
-        logger.info("User has been deleted, id: {}", id);
-        notificationProducer.send(new UserNotificationEvent(OperationType.DELETE, email));
-        logger.info("notificationProducer send DELETE message");
+        String email = userRepository.deleteByIdReturningEmail(id).orElseThrow(() -> new UserNotFoundException(id));
+        emailIndex.remove(email);
+        UserNotificationEvent deleted = new UserNotificationEvent(OperationType.DELETE, email);
+        deleted.setId(id);
+        notificationOutbox.enqueue(deleted);
+        logger.info("deleteById(Long id) - successful exiting, id: {}", id);
+    }
+
+    private static UserNotificationEvent event(OperationType operation, User user) {
+        return new UserNotificationEvent(operation, user.getEmail(), user.getId(), user.getName(), user.getAge(),
+                user.getCreatedAt(), user.getVersion());
     }
 
     private void validateUser(User user) {
@@ -116,6 +265,31 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    private void validateBatch(List<User> users) {
+        if (users == null || users.isEmpty()) {
+            logger.error("validateBatch(List<User> users) - empty batch");
+            throw new BusinessException("Batch must not be empty");
+        }
+        if (users.size() > MAX_BATCH_SIZE) {
+            logger.error("validateBatch(List<User> users) - batch too large: {}", users.size());
+            throw new BusinessException("Batch must not contain more than " + MAX_BATCH_SIZE + " users");
+        }
+    }
+
+    private void validateLimit(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            logger.error("validateLimit(int limit) - invalid limit: {}", limit);
+            throw new BusinessException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private void validateFilter(UserFilter filter) {
+        if (filter.getMinAge() != null && filter.getMaxAge() != null && filter.getMinAge() > filter.getMaxAge()) {
+            logger.error("validateFilter(UserFilter filter) - minAge {} > maxAge {}", filter.getMinAge(), filter.getMaxAge());
+            throw new BusinessException("minAge must not be greater than maxAge");
+        }
+    }
+
     private void validateId(Long id) {
         if (id == null || id <= 0) {
             logger.error("validateId(Long id) - invalid id: {}", id);
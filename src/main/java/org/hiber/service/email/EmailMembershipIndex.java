@@ -0,0 +1,332 @@
+package org.hiber.service.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hiber.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * In-memory answer to "is this email taken?". A Bloom filter rejects most unknown emails,
+ * a set of 64-bit email fingerprints rejects the Bloom filter's false positives and handles
+ * deletes, and only a fingerprint hit has to be confirmed by the database.
+ *
+ * <p>Within this instance errors are allowed in one direction only: an email may look taken when
+ * it is not (it is then checked in the database), never the other way round. So additions are
+ * applied immediately, removals only after the deleting transaction commits, and until the first
+ * build finishes every email looks taken. A removal is dropped if the same email was added after
+ * the removal was requested: the email may have been created again before the delete's commit
+ * callback ran.
+ *
+ * <p>Emails taken through other instances arrive from the snapshot topic
+ * ({@link org.hiber.kafka.view.KafkaEmailIndexFeed}); until they do, i.e. for the outbox relay lag
+ * or while Kafka is unreachable, such an email can look available here. The answer is advisory:
+ * creating the user still fails on the unique email constraint.
+ */
+@Component
+public class EmailMembershipIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailMembershipIndex.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnly;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter absentByBloom;
+    private final Counter absentByFingerprint;
+    private final Counter possible;
+
+    @Value("${users.email-index.expected-emails:1000000}")
+    private long expectedEmails;
+
+    @Value("${users.email-index.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private BloomFilter bloom;
+    private LongHashSet fingerprints;
+    private long bloomInsertions;
+    // Changes made while a rebuild is streaming, replayed onto the new structures before the swap
+    private List<Change> pending;
+    // Incremented by every addition; a removal only applies if no addition of its email came after it
+    private long generation;
+    // Generation of the last addition of each email with a removal waiting for its transaction
+    private final Map<Long, PendingRemoval> pendingRemovals = new HashMap<>();
+
+    public EmailMembershipIndex(UserRepository userRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+
+        absentByBloom = lookupCounter(meterRegistry, "bloom");
+        absentByFingerprint = lookupCounter(meterRegistry, "fingerprint");
+        possible = lookupCounter(meterRegistry, "database");
+        Gauge.builder("user.email.index.size", this, index -> index.read(LongHashSet::size))
+                .description("Emails in the membership index")
+                .register(meterRegistry);
+        Gauge.builder("user.email.index.memory", this, index -> index.read(LongHashSet::sizeInBytes))
+                .tag("structure", "fingerprints")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("user.email.index.memory", this, index -> index.readBloom(BloomFilter::sizeInBytes))
+                .tag("structure", "bloom")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("user.email.index.bloom.false.positive.rate", this, EmailMembershipIndex::expectedFalsePositiveRate)
+                .description("Theoretical Bloom filter false-positive rate for the emails added since the last build")
+                .register(meterRegistry);
+    }
+
+    public Membership lookup(String email) {
+        long hash = hash(email);
+        lock.readLock().lock();
+        try {
+            if (fingerprints != null && !bloom.mightContain(hash)) {
+                absentByBloom.increment();
+                return Membership.ABSENT_BLOOM;
+            }
+            if (fingerprints != null && !fingerprints.contains(hash)) {
+                absentByFingerprint.increment();
+                return Membership.ABSENT_FINGERPRINT;
+            }
+            possible.increment();
+            return Membership.POSSIBLE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String email) {
+        apply(new Change(hash(email), true));
+    }
+
+    public void addAll(List<String> emails) {
+        emails.forEach(this::add);
+    }
+
+    /**
+     * Removes the email once the current transaction commits, or right away outside of one.
+     * The removal is skipped if the email is added again before the commit.
+     */
+    public void remove(String email) {
+        Change change = new Change(hash(email), false);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        long requestedAt;
+        lock.writeLock().lock();
+        try {
+            requestedAt = generation;
+            pendingRemovals.computeIfAbsent(change.hash, hash -> new PendingRemoval()).count++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                completeRemoval(change, requestedAt, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        logger.debug("rebuild() - started");
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        BloomFilter newBloom;
+        LongHashSet newFingerprints;
+        long[] inserted = {0};
+        try {
+            long count = userRepository.count();
+            newBloom = BloomFilter.create(Math.max(expectedEmails, count * 2), falsePositiveRate);
+            newFingerprints = new LongHashSet((int) Math.min(Integer.MAX_VALUE / 2, count));
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> {
+                        long hash = hash(email);
+                        newBloom.put(hash);
+                        newFingerprints.add(hash);
+                        inserted[0]++;
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.warn("rebuild() - failed, keeping the previous index: {}", e.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Change change : pending) {
+                if (change.add) {
+                    newBloom.put(change.hash);
+                    newFingerprints.add(change.hash);
+                    inserted[0]++;
+                } else {
+                    newFingerprints.remove(change.hash);
+                }
+            }
+            pending = null;
+            bloom = newBloom;
+            fingerprints = newFingerprints;
+            bloomInsertions = inserted[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("rebuild() - successful exiting, emails: {}, bloom: {} bytes, {} hashes, fingerprints: {} bytes, "
+                        + "expected false-positive rate: {}",
+                newFingerprints.size(), newBloom.sizeInBytes(), newBloom.hashCount(),
+                newFingerprints.sizeInBytes(), expectedFalsePositiveRate());
+    }
+
+    double expectedFalsePositiveRate() {
+        lock.readLock().lock();
+        try {
+            return bloom == null ? 1.0 : bloom.expectedFalsePositiveRate(bloomInsertions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void completeRemoval(Change change, long requestedAt, boolean committed) {
+        lock.writeLock().lock();
+        try {
+            PendingRemoval removal = pendingRemovals.get(change.hash);
+            boolean addedSince = removal.lastAddedAt > requestedAt;
+            if (--removal.count == 0) {
+                pendingRemovals.remove(change.hash);
+            }
+            if (!committed) {
+                return;
+            }
+            if (addedSince) {
+                logger.debug("completeRemoval() - email added again since the removal, keeping it");
+                return;
+            }
+            apply(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            if (change.add) {
+                generation++;
+                PendingRemoval removal = pendingRemovals.get(change.hash);
+                if (removal != null) {
+                    removal.lastAddedAt = generation;
+                }
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+            if (fingerprints == null) {
+                return;
+            }
+            if (change.add) {
+                bloom.put(change.hash);
+                bloomInsertions++;
+                fingerprints.add(change.hash);
+            } else {
+                fingerprints.remove(change.hash);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private double read(ToLongFunction<LongHashSet> metric) {
+        lock.readLock().lock();
+        try {
+            return fingerprints == null ? 0 : metric.applyAsLong(fingerprints);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double readBloom(ToLongFunction<BloomFilter> metric) {
+        lock.readLock().lock();
+        try {
+            return bloom == null ? 0 : metric.applyAsLong(bloom);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String resolvedBy) {
+        return Counter.builder("user.email.index.lookups")
+                .description("Email availability lookups by the layer that answered them")
+                .tag("resolved_by", resolvedBy)
+                .register(meterRegistry);
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars followed by the SplitMix64 finalizer; never returns 0,
+     * which {@link LongHashSet} reserves for empty slots.
+     */
+    static long hash(String email) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            h ^= email.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return h == 0 ? 1 : h;
+    }
+
+    public enum Membership {
+        ABSENT_BLOOM,
+        ABSENT_FINGERPRINT,
+        POSSIBLE
+    }
+
+    private static final class PendingRemoval {
+        private int count;
+        private long lastAddedAt;
+    }
+
+    private static final class Change {
+        private final long hash;
+        private final boolean add;
+
+        private Change(long hash, boolean add) {
+            this.hash = hash;
+            this.add = add;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.hiber.service.email;
+
+/**
+ * Open-addressing set of non-zero longs with linear probing and backward-shift deletion,
+ * 8 bytes per slot and no per-entry objects. Not thread-safe.
+ */
+final class LongHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] slots;
+    private int size;
+
+    LongHashSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    boolean add(long value) {
+        if ((size + 1) * 2L > slots.length) {
+            resize(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        for (int i = slot(value, mask); ; i = (i + 1) & mask) {
+            if (slots[i] == 0) {
+                slots[i] = value;
+                size++;
+                return true;
+            }
+            if (slots[i] == value) {
+                return false;
+            }
+        }
+    }
+
+    boolean contains(long value) {
+        int mask = slots.length - 1;
+        for (int i = slot(value, mask); slots[i] != 0; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean remove(long value) {
+        int mask = slots.length - 1;
+        int i = slot(value, mask);
+        while (slots[i] != value) {
+            if (slots[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // Pull later entries of the probe chain back into the hole so lookups never stop early
+        int hole = i;
+        for (int j = (hole + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = slot(slots[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                slots[hole] = slots[j];
+                hole = j;
+            }
+        }
+        slots[hole] = 0;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return (long) slots.length * Long.BYTES;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        size = 0;
+        for (long value : old) {
+            if (value != 0) {
+                add(value);
+            }
+        }
+    }
+
+    private static int slot(long value, int mask) {
+        return (int) (value ^ (value >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
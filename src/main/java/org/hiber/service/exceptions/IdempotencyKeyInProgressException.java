@@ -0,0 +1,7 @@
+package org.hiber.service.exceptions;
+
+public class IdempotencyKeyInProgressException extends BusinessException {
+    public IdempotencyKeyInProgressException(String key) {
+        super(String.format("A request with idempotency key \"%s\" is still in progress.", key));
+    }
+}
@@ -0,0 +1,7 @@
+package org.hiber.service.exceptions;
+
+public class IdempotencyKeyReusedException extends BusinessException {
+    public IdempotencyKeyReusedException(String key) {
+        super(String.format("Idempotency key \"%s\" was already used with a different request.", key));
+    }
+}
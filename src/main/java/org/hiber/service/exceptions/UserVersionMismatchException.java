@@ -0,0 +1,13 @@
+package org.hiber.service.exceptions;
+
+import java.util.Collection;
+
+public class UserVersionMismatchException extends BusinessException {
+    public UserVersionMismatchException(Long id, Long expectedVersion) {
+        super("User with id " + id + " has been modified, expected version " + expectedVersion);
+    }
+
+    public UserVersionMismatchException(Long id, Collection<Long> expectedVersions) {
+        super("User with id " + id + " has been modified, expected one of versions " + expectedVersions);
+    }
+}
@@ -0,0 +1,38 @@
+package org.hiber.startup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the instance to Eureka as {@code UP} only once the application is ready. With
+ * {@code eureka.instance.initial-status=starting} the instance registers as soon as Tomcat is up,
+ * but other services route to it only after the context has started and the runners have run.
+ * Does nothing when the instance starts {@code UP} or Eureka is disabled.
+ */
+@Component
+public class DeferredEurekaStatus {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeferredEurekaStatus.class);
+
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    public DeferredEurekaStatus(ObjectProvider<ApplicationInfoManager> applicationInfoManager) {
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void markUp() {
+        applicationInfoManager.ifAvailable(manager -> {
+            if (manager.getInfo().getStatus() == InstanceStatus.STARTING) {
+                manager.setInstanceStatus(InstanceStatus.UP);
+                logger.info("markUp() - instance reported UP to Eureka");
+            }
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package org.hiber.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the declared topics after startup instead of during it. With the default
+ * {@code spring.kafka.admin.auto-create=true} the admin client checks topics while singletons are
+ * created and, if the broker is unreachable, blocks startup for the whole operation timeout and
+ * never retries. With auto-create switched off, this retries in the background with exponential
+ * backoff until the topics exist.
+ */
+@Component
+@Profile("!test")
+@ConditionalOnProperty(name = "spring.kafka.admin.auto-create", havingValue = "false")
+public class DeferredKafkaTopics {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeferredKafkaTopics.class);
+
+    private final KafkaAdmin kafkaAdmin;
+
+    @Value("${kafka.admin.deferred.retry-ms:1000}")
+    private long retryMs;
+
+    @Value("${kafka.admin.deferred.max-retry-ms:60000}")
+    private long maxRetryMs;
+
+    public DeferredKafkaTopics(KafkaAdmin kafkaAdmin) {
+        this.kafkaAdmin = kafkaAdmin;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createInBackground() {
+        Thread worker = new Thread(this::createTopics, "kafka-topic-init");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void createTopics() {
+        logger.debug("createTopics() - started");
+        long delay = retryMs;
+        while (!tryInitialize()) {
+            logger.warn("createTopics() - topics not created yet, retrying in {} ms", delay);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delay = Math.min(delay * 2, maxRetryMs);
+        }
+        logger.info("createTopics() - topics are in place");
+    }
+
+    // KafkaAdmin logs and returns false on the first failure and throws on later ones
+    private boolean tryInitialize() {
+        try {
+            return kafkaAdmin.initialize();
+        } catch (RuntimeException e) {
+            logger.debug("tryInitialize() - failed: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.hiber.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Splits time-to-first-request into phases, measured from JVM start: {@code jvm} (until
+ * {@code main} starts Spring), {@code environment} (config files and the config server import),
+ * {@code context} (bean definitions), {@code beans} (singletons such as JPA, Kafka and the Eureka
+ * client, until Tomcat accepts connections), {@code lifecycle} (the remaining lifecycle beans),
+ * {@code ready} (runners and startup listeners) and {@code first-request} (the first {@code /api}
+ * request, which still pays for whatever is initialized lazily).
+ *
+ * <p>Registered in {@code main} rather than as a bean, so it also sees the events published
+ * before the context exists. Logs one line per phase once the first request completes, exports
+ * {@code application.startup.phase} gauges and, when the application records startup steps with
+ * {@link BufferingApplicationStartup}, lists the slowest beans; the full step timeline is
+ * available at {@code /actuator/startup}.
+ */
+public class StartupTimingReport implements ApplicationListener<ApplicationEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingReport.class);
+
+    private static final int SLOWEST_BEANS = 10;
+
+    // Creating a bean, and the afterSingletonsInstantiated callback where e.g. KafkaAdmin checks topics
+    private static final Set<String> BEAN_STEPS = Set.of("spring.beans.instantiate", "spring.beans.smart-initialize");
+
+    private final long jvmStartMs = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final Map<String, Long> phaseEndMs = new LinkedHashMap<>();
+
+    private ConfigurableApplicationContext context;
+    private volatile boolean firstRequestSeen;
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            mark("jvm");
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            mark("environment");
+        } else if (event instanceof ApplicationPreparedEvent prepared) {
+            context = prepared.getApplicationContext();
+            context.getBeanFactory().registerSingleton("startupTimingFilter", firstRequestFilter());
+            mark("context");
+        } else if (event instanceof WebServerInitializedEvent initialized
+                && initialized.getApplicationContext() == context) {
+            mark("beans");
+        } else if (event instanceof ContextRefreshedEvent refreshed && refreshed.getApplicationContext() == context) {
+            mark("lifecycle");
+        } else if (event instanceof ApplicationReadyEvent ready && ready.getApplicationContext() == context) {
+            mark("ready");
+            logger.info("onApplicationEvent() - ready {} ms after JVM start, waiting for the first request",
+                    phaseEndMs.get("ready") - jvmStartMs);
+        }
+    }
+
+    private synchronized void mark(String phase) {
+        phaseEndMs.putIfAbsent(phase, System.currentTimeMillis());
+    }
+
+    private void firstRequestCompleted() {
+        mark("first-request");
+        Map<String, Long> durations = durations();
+        long total = phaseEndMs.get("first-request") - jvmStartMs;
+        logger.info("firstRequestCompleted() - time to first request: {} ms", total);
+        durations.forEach((phase, ms) -> logger.info("firstRequestCompleted() - phase {}: {} ms", phase, ms));
+        logSlowestBeans();
+        context.getBeanProvider(MeterRegistry.class).ifAvailable(registry -> durations.forEach((phase, ms) ->
+                TimeGauge.builder("application.startup.phase", ms, TimeUnit.MILLISECONDS, Long::doubleValue)
+                        .description("Time spent in each startup phase up to the first request")
+                        .tag("phase", phase)
+                        .register(registry)));
+    }
+
+    private synchronized Map<String, Long> durations() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        long previous = jvmStartMs;
+        for (Map.Entry<String, Long> phase : phaseEndMs.entrySet()) {
+            durations.put(phase.getKey(), phase.getValue() - previous);
+            previous = phase.getValue();
+        }
+        return durations;
+    }
+
+    // Durations include the beans each one depends on, so a slow dependency shows up under its dependents too
+    private void logSlowestBeans() {
+        ApplicationStartup startup = context.getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        String slowest = buffering.getBufferedTimeline().getEvents().stream()
+                .filter(step -> BEAN_STEPS.contains(step.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(SLOWEST_BEANS)
+                .map(step -> beanName(step) + "=" + step.getDuration().toMillis() + "ms")
+                .collect(Collectors.joining(", "));
+        logger.info("firstRequestCompleted() - slowest beans: {}", slowest);
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent step) {
+        for (StartupStep.Tag tag : step.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    private FilterRegistrationBean<OncePerRequestFilter> firstRequestFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    if (!firstRequestSeen) {
+                        recordFirstRequest();
+                    }
+                }
+            }
+        });
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private synchronized void recordFirstRequest() {
+        if (firstRequestSeen) {
+            return;
+        }
+        firstRequestSeen = true;
+        firstRequestCompleted();
+    }
+}
@@ -0,0 +1,16 @@
+-- Indexes for GET /api/users filters, sorting and keyset paging.
+-- Not applied at startup: run once per database by an owner of the schema, outside a transaction
+-- (psql -f indexes.sql, without --single-transaction). CONCURRENTLY builds without blocking writes to users.
+-- If a concurrent build fails it leaves an INVALID index that "if not exists" skips: drop it and run again.
+-- Tests apply the same script through spring.sql.init (application-test.properties).
+
+-- Requires CREATE privilege on the database (pg_trgm is a trusted extension since PostgreSQL 13)
+create extension if not exists pg_trgm;
+
+-- Case-insensitive prefix and substring search: lower(name) like 'abc%' / '%abc%'
+create index concurrently if not exists users_name_trgm_idx on users using gin (lower(name) gin_trgm_ops);
+
+-- Sort + keyset (value, id) and range filters on the leading column
+create index concurrently if not exists users_name_id_idx on users (name, id);
+create index concurrently if not exists users_age_id_idx on users (age, id);
+create index concurrently if not exists users_created_at_id_idx on users (created_at, id);
@@ -0,0 +1,7 @@
+-- Id sequences. Not applied at startup: run once per existing database by an owner of the schema.
+-- User ids are allocated by Hibernate in pooled blocks (allocationSize = 50 in User), so the sequence
+-- increment must match, otherwise two instances get overlapping blocks and inserts fail on the primary key.
+alter sequence users_id_seq increment by 50;
+
+-- user_outbox ids stay IDENTITY (increment 1): their order is the order in which events are relayed.
+-- A user_outbox_id_seq created for an earlier build is unused and can be dropped.
@@ -1,14 +1,25 @@
 package org.hiber;
 
+import org.hiber.api.dto.UserBatchRequestDto;
 import org.hiber.api.dto.UserRequestDto;
+import org.hiber.api.pagination.UserCursor;
+import org.hiber.entity.User;
+import org.hiber.service.ImportFormat;
+import org.hiber.service.ImportResult;
+import org.hiber.service.UserImportService;
+import org.hiber.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -19,9 +30,19 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
 @SpringBootTest
 @AutoConfigureMockMvc
 @Testcontainers
@@ -48,6 +69,18 @@ public class UserApiIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     void shouldCreateUser() throws Exception {
         UserRequestDto request = new UserRequestDto();
@@ -125,7 +158,76 @@ public class UserApiIntegrationTest {
                 .andExpect(jsonPath("$.id").value(userId))
                 .andExpect(jsonPath("$.name").value("TestUserUpdate"))
                 .andExpect(jsonPath("$.email").value("testuserupdatre@test.com"))
-                .andExpect(jsonPath("$.age").value(41));
+                .andExpect(jsonPath("$.age").value(41))
+                .andExpect(jsonPath("$.createdAt").exists());
+    }
+
+    @Test
+    void shouldHonourETagsOnGetAndUpdate() throws Exception {
+        UserRequestDto request = new UserRequestDto();
+        request.setName("TestETagUser");
+        request.setEmail("testetaguser@test.com");
+        request.setAge(20);
+
+        String createResponse = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Long userId = objectMapper
+                .readTree(createResponse)
+                .get("id")
+                .asLong();
+
+        String etag = mockMvc.perform(get("/api/users/{id}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/users/{id}", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        request.setAge(21);
+        mockMvc.perform(put("/api/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.age").value(21));
+
+        request.setAge(22);
+        mockMvc.perform(put("/api/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/api/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/users/{id}", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.age").value(21));
+
+        mockMvc.perform(put("/api/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, "\"0\", \"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.age").value(22));
     }
 
     @Test
@@ -153,6 +255,41 @@ public class UserApiIntegrationTest {
         mockMvc.perform(get("/api/users/{id}", userId)).andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldAnswerEmailAvailabilityAcrossCreateAndDelete() throws Exception {
+        UserRequestDto request = new UserRequestDto();
+        request.setName("TestAvailable");
+        request.setEmail("testavailable@test.com");
+        request.setAge(33);
+
+        mockMvc.perform(get("/api/users/email-available").param("email", "testavailable@test.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(true));
+
+        String createResponse = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Long userId = objectMapper
+                .readTree(createResponse)
+                .get("id")
+                .asLong();
+
+        mockMvc.perform(get("/api/users/email-available").param("email", "testavailable@test.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false));
+
+        mockMvc.perform(delete("/api/users/{id}", userId)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/email-available").param("email", "testavailable@test.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(true));
+    }
+
     @Test
     void shouldReturn404WhenUserNotFound() throws Exception {
         mockMvc.perform(get("/api/users/{id}", 99999L))
@@ -166,7 +303,7 @@ public class UserApiIntegrationTest {
     }
 
     @Test
-    void shouldUpdateNonExistingUser_NoOp() throws Exception {
+    void shouldReturn404WhenUpdatingNonExistingUser() throws Exception {
         UserRequestDto request = new UserRequestDto();
         request.setName("Ghost");
         request.setEmail("ghost@test.com");
@@ -175,7 +312,349 @@ public class UserApiIntegrationTest {
         mockMvc.perform(put("/api/users/{id}", 99999L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isOk());
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnPageAfterCursor() throws Exception {
+        UserRequestDto request = new UserRequestDto();
+        request.setName("TestPageUser");
+        request.setEmail("testpageuser@test.com");
+        request.setAge(33);
+
+        String createResponse = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Long userId = objectMapper
+                .readTree(createResponse)
+                .get("id")
+                .asLong();
+
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "1")
+                        .param("cursor", UserCursor.encode(userId - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(userId))
+                .andExpect(jsonPath("$.items[0].email").value("testpageuser@test.com"))
+                .andExpect(jsonPath("$.next").value(UserCursor.encode(userId)));
+    }
+
+    @Test
+    void shouldSearchByNameAndPageBySortedKeyset() throws Exception {
+        Integer[] ages = {30, null, 25, 30};
+        for (int i = 0; i < ages.length; i++) {
+            UserRequestDto request = new UserRequestDto();
+            request.setName("Searchable Kowalski " + i);
+            request.setEmail("searchable" + i + "@test.com");
+            request.setAge(ages[i]);
+            mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        String firstPage = mockMvc.perform(get("/api/users")
+                        .param("limit", "2")
+                        .param("name", "KOWALSKI")
+                        .param("nameMatch", "contains")
+                        .param("sort", "-age"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].email").value("searchable1@test.com"))
+                .andExpect(jsonPath("$.items[1].email").value("searchable3@test.com"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String cursor = objectMapper.readTree(firstPage).get("next").asText();
+
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "2")
+                        .param("name", "KOWALSKI")
+                        .param("nameMatch", "contains")
+                        .param("sort", "-age")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].email").value("searchable0@test.com"))
+                .andExpect(jsonPath("$.items[1].email").value("searchable2@test.com"));
+
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "10")
+                        .param("name", "searchable")
+                        .param("minAge", "26")
+                        .param("sort", "age"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].email").value("searchable0@test.com"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void shouldCreateUsersInBatchAndReportDuplicates() throws Exception {
+        UserRequestDto first = new UserRequestDto();
+        first.setName("BatchUser1");
+        first.setEmail("batchuser1@test.com");
+        first.setAge(20);
+
+        UserRequestDto second = new UserRequestDto();
+        second.setName("BatchUser2");
+        second.setEmail("batchuser2@test.com");
+        second.setAge(21);
+
+        UserRequestDto duplicate = new UserRequestDto();
+        duplicate.setName("BatchUser1Again");
+        duplicate.setEmail("batchuser1@test.com");
+        duplicate.setAge(22);
+
+        UserBatchRequestDto request = new UserBatchRequestDto();
+        request.setUsers(List.of(first, second, duplicate));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created.length()").value(2))
+                .andExpect(jsonPath("$.created[0].id").exists())
+                .andExpect(jsonPath("$.created[1].email").value("batchuser2@test.com"))
+                .andExpect(jsonPath("$.conflicts.length()").value(1))
+                .andExpect(jsonPath("$.conflicts[0].index").value(2));
+
+        request.setUsers(List.of(second));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created.length()").value(0))
+                .andExpect(jsonPath("$.conflicts[0].email").value("batchuser2@test.com"));
+    }
+
+    @Test
+    void shouldQueueBatchEventsInBatchOrder() {
+        // Checked before commit: the relay deletes committed rows as soon as it has published them
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.createAll(List.of(
+                    new User("QueuedBatch1", "queuedbatch1@test.com", 20),
+                    new User("QueuedBatch2", "queuedbatch2@test.com", 21),
+                    new User("QueuedBatch3", "queuedbatch3@test.com", 22)));
+
+            List<String> queued = jdbcTemplate.queryForList("""
+                    select payload::json ->> 'name'
+                      from user_outbox
+                     where event_key like 'queuedbatch%'
+                     order by id
+                    """, String.class);
+            assertEquals(List.of("QueuedBatch1", "QueuedBatch2", "QueuedBatch3"), queued);
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void shouldImportCsvAndReportInvalidRowsAndConflicts() throws Exception {
+        UserRequestDto existing = new UserRequestDto();
+        existing.setName("ImportExisting");
+        existing.setEmail("importexisting@test.com");
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(existing)))
+                .andExpect(status().isCreated());
+
+        String csv = """
+                name,email,age
+                Imported1,imported1@test.com,31
+                "Imported ""Quoted"", Jr.",importedquoted@test.com,
+                ImportExistingAgain,importexisting@test.com,40
+                ,importblank@test.com,1
+                Imported1Again,imported1@test.com,32
+                """;
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.conflicts").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(4))
+                .andExpect(jsonPath("$.errors[0].message").value("name name must not be blank"))
+                .andExpect(jsonPath("$.errors[1].row").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value("Email already exists"))
+                .andExpect(jsonPath("$.errors[2].row").value(5))
+                .andExpect(jsonPath("$.errors[2].message").value("Email is duplicated in the import"));
+
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "10")
+                        .param("name", "imported")
+                        .param("sort", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Imported \"Quoted\", Jr."))
+                .andExpect(jsonPath("$.items[0].age").doesNotExist())
+                .andExpect(jsonPath("$.items[1].email").value("imported1@test.com"))
+                .andExpect(jsonPath("$.items[1].age").value(31));
+    }
+
+    @Test
+    void shouldQueueImportEventsBeforeLaterUpdates() {
+        // Checked before commit: the relay deletes committed rows as soon as it has published them
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ImportResult imported = userImportService.importUsers(new ByteArrayInputStream("""
+                    {"name":"OrderedImport","email":"orderedimport@test.com","age":20}
+                    """.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+            assertEquals(1L, imported.getImported());
+            Long userId = jdbcTemplate.queryForObject(
+                    "select id from users where email = 'orderedimport@test.com'", Long.class);
+
+            User update = new User("OrderedImportUpdated", "orderedimport@test.com", 21);
+            update.setId(userId);
+            userService.update(update);
+
+            // The relay publishes in id order, so the CREATE written first must have the lower id
+            List<String> operations = jdbcTemplate.queryForList("""
+                    select payload::json ->> 'operation'
+                      from user_outbox
+                     where event_key = 'orderedimport@test.com'
+                     order by id
+                    """, String.class);
+            assertEquals(List.of("CREATE", "UPDATE"), operations);
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void shouldImportNdjsonAndRollBackMalformedUpload() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"name":"NdjsonUser1","email":"ndjsonuser1@test.com","age":20}
+                                {"name":"NdjsonUser2","email":"ndjsonuser2@test.com"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"name":"NdjsonUser3","email":"ndjsonuser3@test.com"}
+                                {"name":"NdjsonUser4",
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Malformed NDJSON input at row 2"));
+
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "10")
+                        .param("name", "ndjsonuser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void shouldExportCompressedAndResumeAfterId() throws Exception {
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content("name,email\nExport1,export1@test.com\nExport2,export2@test.com\nExport3,export3@test.com\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3));
+
+        List<String> all = exportLines(null);
+        assertEquals(List.of("export1@test.com", "export2@test.com", "export3@test.com"), exportEmails(all));
+
+        long firstId = objectMapper.readTree(all.stream()
+                .filter(line -> line.contains("export1@test.com"))
+                .findFirst()
+                .orElseThrow()).get("id").asLong();
+        assertEquals(List.of("export2@test.com", "export3@test.com"), exportEmails(exportLines(firstId)));
+    }
+
+    private List<String> exportLines(Long after) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/export")
+                        .param("format", "ndjson")
+                        .param("compression", "gzip")
+                        .param("after", after == null ? "" : after.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return Arrays.asList(new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n"));
+        }
+    }
+
+    private List<String> exportEmails(List<String> lines) throws Exception {
+        List<String> emails = new ArrayList<>();
+        for (String line : lines) {
+            String email = objectMapper.readTree(line).get("email").asText();
+            if (email.startsWith("export")) {
+                emails.add(email);
+            }
+        }
+        return emails;
+    }
+
+    @Test
+    void shouldReturn409WhenEmailAlreadyExists() throws Exception {
+        UserRequestDto request = new UserRequestDto();
+        request.setName("TestDuplicate");
+        request.setEmail("testduplicate@test.com");
+        request.setAge(50);
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.createdAt").exists());
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void shouldReplayCreateWithSameIdempotencyKey() throws Exception {
+        UserRequestDto request = new UserRequestDto();
+        request.setName("TestRetry");
+        request.setEmail("testretry@test.com");
+        request.setAge(33);
+
+        String first = mockMvc.perform(post("/api/users")
+                        .header("Idempotency-Key", "it-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String replay = mockMvc.perform(post("/api/users")
+                        .header("Idempotency-Key", "it-retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals(first, replay);
+
+        mockMvc.perform(post("/api/users")
+                        .header("Idempotency-Key", "it-retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
     }
 
 }
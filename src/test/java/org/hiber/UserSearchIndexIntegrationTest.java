@@ -0,0 +1,133 @@
+package org.hiber;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+public class UserSearchIndexIntegrationTest {
+
+    private static final int ROWS = 20_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:18.1")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void fillTable() {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from users", Integer.class);
+        if (count != null && count >= ROWS) {
+            return;
+        }
+        jdbcTemplate.update("""
+                insert into users (id, name, email, age, created_at, version)
+                select g, 'Person ' || letters.word, 'person' || g || '@index.test', 18 + g % 60,
+                       timestamp '2024-01-01' + g * interval '1 minute', 0
+                  from generate_series(1, ?) g
+                 cross join lateral (
+                       select string_agg(chr(97 + get_byte(decode(md5(g::text), 'hex'), i) % 26), '') as word
+                         from generate_series(0, 11) i
+                 ) letters
+                """, ROWS);
+        jdbcTemplate.execute("vacuum analyze users");
+    }
+
+    @Test
+    void substringSearchUsesTrigramIndex() {
+        String plan = explain("""
+                select * from users
+                 where lower(name) like '%kqzwx%' escape '\\'
+                 order by id
+                 limit 50
+                """);
+
+        assertUsesIndex(plan, "users_name_trgm_idx");
+    }
+
+    @Test
+    void prefixSearchUsesTrigramIndex() {
+        String plan = explain("""
+                select * from users
+                 where lower(name) like 'person kqzw%'
+                 order by id
+                 limit 50
+                """);
+
+        assertUsesIndex(plan, "users_name_trgm_idx");
+    }
+
+    @Test
+    void nameKeysetUsesNameIndex() {
+        String plan = explain("""
+                select * from users
+                 where name >= 'Person 8' and (name > 'Person 8' or id > 100)
+                 order by name, id
+                 limit 50
+                """);
+
+        assertUsesIndex(plan, "users_name_id_idx");
+    }
+
+    @Test
+    void ageRangeSortedByAgeUsesAgeIndex() {
+        String plan = explain("""
+                select * from users
+                 where age >= 40 and age <= 41
+                   and age >= 40 and (age > 40 or id > 500)
+                 order by age, id
+                 limit 50
+                """);
+
+        assertUsesIndex(plan, "users_age_id_idx");
+    }
+
+    @Test
+    void createdAfterSortedByCreationUsesCreatedAtIndex() {
+        String plan = explain("""
+                select * from users
+                 where created_at > timestamp '2024-01-10'
+                 order by created_at desc, id desc
+                 limit 50
+                """);
+
+        assertUsesIndex(plan, "users_created_at_id_idx");
+    }
+
+    private String explain(String sql) {
+        List<String> lines = jdbcTemplate.queryForList("explain " + sql, String.class);
+        return String.join("\n", lines);
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("Seq Scan on users"), () -> "Unexpected sequential scan:\n" + plan);
+    }
+}
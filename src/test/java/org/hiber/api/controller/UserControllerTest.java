@@ -2,29 +2,66 @@ package org.hiber.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hiber.api.mapper.UserMapper;
+import org.hiber.service.ImportFormat;
+import org.hiber.service.ImportResult;
+import org.hiber.service.UserImportService;
 import org.hiber.service.UserService;
 import org.hiber.service.exceptions.UserNotFoundException;
+import org.hiber.service.exceptions.UserVersionMismatchException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import org.hiber.api.dto.UserBatchConflictDto;
+import org.hiber.api.dto.UserBatchRequestDto;
+import org.hiber.api.dto.UserBatchResponseDto;
+import org.hiber.api.dto.UserImportErrorDto;
+import org.hiber.api.dto.UserImportResponseDto;
 import org.hiber.api.dto.UserRequestDto;
 import org.hiber.api.dto.UserResponseDto;
+import org.hiber.api.export.ExportCompression;
+import org.hiber.api.export.ExportFormat;
+import org.hiber.api.export.UserExportWriter;
+import org.hiber.api.idempotency.IdempotencyStore;
+import org.hiber.api.pagination.UserCursor;
 import org.hiber.entity.User;
+import org.hiber.repository.projection.UserView;
+import org.hiber.repository.search.UserFilter;
+import org.hiber.repository.search.UserKey;
+import org.hiber.repository.search.UserSort;
+import org.hiber.repository.search.UserSortField;
+import org.hiber.service.BatchCreateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,9 +82,23 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserExportWriter userExportWriter;
+
     @MockBean
     private UserMapper userMapper;
 
+    @TestConfiguration
+    static class IdempotencyConfig {
+        @Bean
+        IdempotencyStore idempotencyStore() {
+            return new IdempotencyStore(100, 60_000, 1_000, new SimpleMeterRegistry());
+        }
+    }
+
     @Test
     void create_validRequest_returns201AndResponseDto() throws Exception {
         UserRequestDto requestDto = new UserRequestDto();
@@ -80,6 +131,41 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.age").value(30));
     }
 
+    @Test
+    void create_repeatedIdempotencyKey_replaysFirstResponseWithoutCreatingAgain() throws Exception {
+        UserRequestDto requestDto = new UserRequestDto();
+        requestDto.setName("John");
+        requestDto.setEmail("john@test.com");
+        requestDto.setAge(30);
+
+        UserResponseDto responseDto = new UserResponseDto();
+        responseDto.setId(1L);
+        responseDto.setEmail("john@test.com");
+
+        when(userMapper.toEntity(any(UserRequestDto.class))).thenReturn(new User("John", "john@test.com", 30));
+        when(userService.create(any(User.class))).thenReturn(new User("John", "john@test.com", 30));
+        when(userMapper.toResponseDto(any(User.class))).thenReturn(responseDto);
+
+        for (String replayed : List.of("false", "true")) {
+            mockMvc.perform(post("/api/users")
+                            .header("Idempotency-Key", "create-john")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDto)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", replayed))
+                    .andExpect(jsonPath("$.id").value(1L));
+        }
+
+        requestDto.setAge(31);
+        mockMvc.perform(post("/api/users")
+                        .header("Idempotency-Key", "create-john")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(userService, times(1)).create(any(User.class));
+    }
+
     @Test
     void create_invalidRequest_returns400() throws Exception {
 
@@ -96,30 +182,208 @@ class UserControllerTest {
         verify(userService, never()).create(any());
     }
 
+    @Test
+    void createAll_validBatch_returnsCreatedAndConflicts() throws Exception {
+        UserRequestDto first = new UserRequestDto();
+        first.setName("John");
+        first.setEmail("john@test.com");
+        first.setAge(30);
+        UserRequestDto second = new UserRequestDto();
+        second.setName("Jane");
+        second.setEmail("jane@test.com");
+        second.setAge(25);
+        UserBatchRequestDto requestDto = new UserBatchRequestDto();
+        requestDto.setUsers(List.of(first, second));
+
+        UserResponseDto created = new UserResponseDto();
+        created.setId(1L);
+        created.setEmail("john@test.com");
+        UserBatchResponseDto responseDto = new UserBatchResponseDto(
+                List.of(created),
+                List.of(new UserBatchConflictDto(1, "jane@test.com", "Email already exists")));
+
+        when(userMapper.toEntity(any(UserRequestDto.class))).thenReturn(new User("John", "john@test.com", 30));
+        when(userService.createAll(any())).thenReturn(new BatchCreateResult(List.of(), List.of()));
+        when(userMapper.toBatchResponseDto(any(BatchCreateResult.class))).thenReturn(responseDto);
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created.length()").value(1))
+                .andExpect(jsonPath("$.created[0].id").value(1))
+                .andExpect(jsonPath("$.conflicts[0].index").value(1))
+                .andExpect(jsonPath("$.conflicts[0].email").value("jane@test.com"));
+    }
+
+    @Test
+    void createAll_invalidItem_returns400() throws Exception {
+        UserRequestDto invalid = new UserRequestDto();
+        invalid.setName("John");
+        invalid.setEmail("not-an-email");
+        UserBatchRequestDto requestDto = new UserBatchRequestDto();
+        requestDto.setUsers(List.of(invalid));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("users[0].email is not valid"));
+
+        verify(userService, never()).createAll(any());
+    }
+
+    @Test
+    void importCsv_returnsCountsAndRowErrors() throws Exception {
+        ImportResult result = new ImportResult(2, 1, 0, 1, List.of());
+        UserImportResponseDto responseDto = new UserImportResponseDto(2, 1, 0, 1,
+                List.of(new UserImportErrorDto(2, "jane@test.com", "Email already exists")));
+        when(userImportService.importUsers(any(), eq(ImportFormat.CSV))).thenReturn(result);
+        when(userMapper.toImportResponseDto(result)).thenReturn(responseDto);
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content("name,email\nJohn,john@test.com\nJane,jane@test.com\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.conflicts").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].email").value("jane@test.com"));
+    }
+
+    @Test
+    void importNdjson_passesFormatToService() throws Exception {
+        ImportResult result = new ImportResult(1, 1, 0, 0, List.of());
+        when(userImportService.importUsers(any(), eq(ImportFormat.NDJSON))).thenReturn(result);
+        when(userMapper.toImportResponseDto(result)).thenReturn(new UserImportResponseDto(1, 1, 0, 0, List.of()));
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"John\",\"email\":\"john@test.com\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
     @Test
     void getById_existingUser_returns200AndBody() throws Exception {
         Long userId = 1L;
 
-        User user = new User("John", "john@test.com", 30);
-        user.setId(userId);
-
-        UserResponseDto responseDto = new UserResponseDto();
-        responseDto.setId(userId);
-        responseDto.setName("John");
-        responseDto.setEmail("john@test.com");
-        responseDto.setAge(30);
+        UserView user = new UserView(userId, "John", "john@test.com", 30, null, 2L);
 
         when(userService.findById(userId)).thenReturn(user);
-        when(userMapper.toResponseDto(user)).thenReturn(responseDto);
 
         mockMvc.perform(get("/api/users/{id}", userId))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
                 .andExpect(jsonPath("$.id").value(userId))
                 .andExpect(jsonPath("$.name").value("John"))
                 .andExpect(jsonPath("$.email").value("john@test.com"))
                 .andExpect(jsonPath("$.age").value(30));
     }
 
+    @Test
+    void getById_matchingIfNoneMatch_returns304WithoutBody() throws Exception {
+        UserView user = new UserView(1L, "John", "john@test.com", 30, null, 2L);
+
+        when(userService.findById(1L)).thenReturn(user);
+
+        mockMvc.perform(get("/api/users/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+
+        verify(userMapper, never()).toResponseDto(any(UserView.class));
+    }
+
+    @Test
+    void update_withIfMatch_passesVersionAndReturnsNewETag() throws Exception {
+        UserRequestDto requestDto = new UserRequestDto();
+        requestDto.setName("John");
+        requestDto.setEmail("john@test.com");
+        requestDto.setAge(31);
+
+        User updated = new User("John", "john@test.com", 31);
+        updated.setId(1L);
+        updated.setVersion(3L);
+
+        when(userMapper.toEntity(any(UserRequestDto.class))).thenReturn(new User("John", "john@test.com", 31));
+        when(userService.update(any(User.class))).thenReturn(updated);
+        when(userMapper.toResponseDto(updated)).thenReturn(new UserResponseDto());
+
+        mockMvc.perform(put("/api/users/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        verify(userService).update(argThat(user -> user.getId() == 1L && user.getVersion() == 2L));
+    }
+
+    @Test
+    void update_staleIfMatch_returns412() throws Exception {
+        UserRequestDto requestDto = new UserRequestDto();
+        requestDto.setName("John");
+        requestDto.setEmail("john@test.com");
+        requestDto.setAge(31);
+
+        when(userMapper.toEntity(any(UserRequestDto.class))).thenReturn(new User("John", "john@test.com", 31));
+        when(userService.update(any(User.class))).thenThrow(new UserVersionMismatchException(1L, 2L));
+
+        mockMvc.perform(put("/api/users/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void update_ifMatchList_usesMatchingVersion() throws Exception {
+        UserRequestDto requestDto = new UserRequestDto();
+        requestDto.setName("John");
+        requestDto.setEmail("john@test.com");
+        requestDto.setAge(31);
+
+        User updated = new User("John", "john@test.com", 31);
+        updated.setId(1L);
+        updated.setVersion(4L);
+
+        when(userMapper.toEntity(any(UserRequestDto.class))).thenReturn(new User("John", "john@test.com", 31));
+        when(userService.matchVersion(1L, Set.of(2L, 3L))).thenReturn(3L);
+        when(userService.update(any(User.class))).thenReturn(updated);
+        when(userMapper.toResponseDto(updated)).thenReturn(new UserResponseDto());
+
+        mockMvc.perform(put("/api/users/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"2\", W/\"5\", \"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        verify(userService).update(argThat(user -> user.getVersion() == 3L));
+    }
+
+    @Test
+    void update_weakIfMatch_returns412() throws Exception {
+        UserRequestDto requestDto = new UserRequestDto();
+        requestDto.setName("John");
+        requestDto.setEmail("john@test.com");
+        requestDto.setAge(31);
+
+        when(userMapper.toEntity(any(UserRequestDto.class))).thenReturn(new User("John", "john@test.com", 31));
+        when(userService.matchVersion(1L, Set.of())).thenThrow(new UserVersionMismatchException(1L, Set.of()));
+
+        mockMvc.perform(put("/api/users/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService, never()).update(any(User.class));
+    }
+
     @Test
     void getById_userNotFound_returns404() throws Exception {
         Long userId = 999L;
@@ -132,27 +396,11 @@ class UserControllerTest {
 
     @Test
     void getAll_usersExist_returnsList() throws Exception {
-        User user1 = new User("John", "john@test.com", 30);
-        user1.setId(1L);
-
-        User user2 = new User("Jane", "jane@test.com", 25);
-        user2.setId(2L);
+        UserView user1 = new UserView(1L, "John", "john@test.com", 30, null, 0L);
 
-        UserResponseDto dto1 = new UserResponseDto();
-        dto1.setId(1L);
-        dto1.setName("John");
-        dto1.setEmail("john@test.com");
-        dto1.setAge(30);
-
-        UserResponseDto dto2 = new UserResponseDto();
-        dto2.setId(2L);
-        dto2.setName("Jane");
-        dto2.setEmail("jane@test.com");
-        dto2.setAge(25);
+        UserView user2 = new UserView(2L, "Jane", "jane@test.com", 25, null, 0L);
 
         when(userService.findAll()).thenReturn(List.of(user1, user2));
-        when(userMapper.toResponseDto(user1)).thenReturn(dto1);
-        when(userMapper.toResponseDto(user2)).thenReturn(dto2);
 
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
@@ -172,4 +420,165 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
-}
\ No newline at end of file
+    @Test
+    void getPage_fullPage_returnsItemsAndNextCursor() throws Exception {
+        UserView user1 = new UserView(11L, "John", "john@test.com", 30, null, 0L);
+        UserView user2 = new UserView(12L, "Jane", "jane@test.com", 25, null, 0L);
+
+        when(userService.findPage(10L, 2)).thenReturn(List.of(user1, user2));
+
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "2")
+                        .param("cursor", UserCursor.encode(10L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(11))
+                .andExpect(jsonPath("$.next").value(UserCursor.encode(12L)));
+    }
+
+    @Test
+    void getPage_lastPage_returnsNullNextCursor() throws Exception {
+        UserView user = new UserView(1L, "John", "john@test.com", 30, null, 0L);
+
+        when(userService.findPage(null, 5)).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/api/users").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void getPage_invalidCursor_returns400() throws Exception {
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "5")
+                        .param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).findPage(any(), eq(5));
+    }
+
+    @Test
+    void search_filtersAndSort_returnsItemsAndCursorBoundToSort() throws Exception {
+        UserView user1 = new UserView(7L, "Ann", "ann@test.com", 40, null, 0L);
+        UserView user2 = new UserView(3L, "Annette", "annette@test.com", 35, null, 0L);
+
+        when(userService.search(any(UserFilter.class), any(UserSort.class), isNull(), eq(2)))
+                .thenReturn(List.of(user1, user2));
+
+        String body = mockMvc.perform(get("/api/users")
+                        .param("limit", "2")
+                        .param("name", "ann")
+                        .param("nameMatch", "contains")
+                        .param("minAge", "30")
+                        .param("sort", "-age"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        verify(userService).search(
+                argThat(filter -> "ann".equals(filter.getName())
+                        && filter.getNameMatch() == UserFilter.NameMatch.CONTAINS
+                        && filter.getMinAge() == 30
+                        && filter.getMaxAge() == null),
+                argThat(sort -> sort.getField() == UserSortField.AGE && sort.isDescending()),
+                isNull(),
+                eq(2));
+
+        String next = objectMapper.readTree(body).get("next").asText();
+        UserKey key = UserCursor.decode(next, new UserSort(UserSortField.AGE, true));
+        assertEquals(35, key.getValue());
+        assertEquals(3L, key.getId());
+    }
+
+    @Test
+    void search_cursorFromOtherSort_returns400() throws Exception {
+        String cursor = UserCursor.encode(new UserSort(UserSortField.NAME, false),
+                new UserView(7L, "Ann", "ann@test.com", 40, null, 0L));
+
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "2")
+                        .param("sort", "age")
+                        .param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_unsupportedSort_returns400() throws Exception {
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "2")
+                        .param("sort", "email"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stream_ndjsonAccepted_writesOneUserPerLine() throws Exception {
+        UserView user1 = new UserView(1L, "John", "john@test.com", 30, null, 0L);
+        UserView user2 = new UserView(2L, "Jane", "jane@test.com", 25, null, 0L);
+
+        doAnswer(invocation -> {
+            Consumer<UserView> action = invocation.getArgument(1);
+            action.accept(user1);
+            action.accept(user2);
+            return null;
+        }).when(userService).streamAll(isNull(), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals("Jane", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
+
+    @Test
+    void export_returnsCompressedAttachment() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write(new byte[]{1, 2, 3});
+            return null;
+        }).when(userExportWriter).write(eq(ExportFormat.CSV), eq(ExportCompression.ZSTD), eq(42L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/users/export")
+                        .param("format", "csv")
+                        .param("compression", "zstd")
+                        .param("after", "42"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zstd"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv.zst\""))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void export_unsupportedCompression_returns400() throws Exception {
+        mockMvc.perform(get("/api/users/export").param("compression", "brotli"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported compression: brotli"));
+    }
+
+    @Test
+    void isEmailAvailable_returnsAnswerFromService() throws Exception {
+        when(userService.isEmailAvailable("free@test.com")).thenReturn(true);
+
+        mockMvc.perform(get("/api/users/email-available").param("email", "free@test.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("free@test.com"))
+                .andExpect(jsonPath("$.available").value(true));
+    }
+}
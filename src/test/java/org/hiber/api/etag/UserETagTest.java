@@ -0,0 +1,38 @@
+package org.hiber.api.etag;
+
+import org.hiber.service.exceptions.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserETagTest {
+
+    @Test
+    void parseIfMatch_absentOrWildcard_placesNoCondition() {
+        assertNull(UserETag.parseIfMatch(null));
+        assertNull(UserETag.parseIfMatch(" "));
+        assertNull(UserETag.parseIfMatch("*"));
+    }
+
+    @Test
+    void parseIfMatch_list_returnsEveryStrongVersion() {
+        assertEquals(Set.of(2L), UserETag.parseIfMatch("\"2\""));
+        assertEquals(Set.of(2L, 3L), UserETag.parseIfMatch("\"2\", \"3\""));
+        assertEquals(Set.of(2L, 3L), UserETag.parseIfMatch("\"2\",\"3\",\"2\""));
+    }
+
+    @Test
+    void parseIfMatch_weakOrForeignTags_neverMatch() {
+        assertEquals(Set.of(), UserETag.parseIfMatch("W/\"3\""));
+        assertEquals(Set.of(), UserETag.parseIfMatch("\"abc\""));
+        assertEquals(Set.of(2L), UserETag.parseIfMatch("W/\"3\", \"2\", \"x,y\""));
+    }
+
+    @Test
+    void parseIfMatch_malformed_throwsBusinessException() {
+        assertThrows(BusinessException.class, () -> UserETag.parseIfMatch("2"));
+        assertThrows(BusinessException.class, () -> UserETag.parseIfMatch("\"2"));
+    }
+}
@@ -0,0 +1,137 @@
+package org.hiber.api.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.hiber.api.mapper.UserMapper;
+import org.hiber.repository.projection.UserView;
+import org.hiber.service.UserService;
+import org.hiber.service.exceptions.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportWriterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private UserService userService;
+
+    private UserExportWriter exportWriter;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportWriter = new UserExportWriter(userService, new UserMapper(), objectMapper);
+        ReflectionTestUtils.setField(exportWriter, "flushRows", 1);
+    }
+
+    @Test
+    void write_csvGzip_writesHeaderAndQuotedRows() throws Exception {
+        streamUsers(null,
+                new UserView(1L, "John", "john@test.com", 30, CREATED_AT, 0L),
+                new UserView(2L, "Doe, Jr.", "doe@test.com", null, CREATED_AT, 0L));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportWriter.write(ExportFormat.CSV, ExportCompression.GZIP, null, out);
+
+        assertEquals("""
+                id,name,email,age,createdAt
+                1,John,john@test.com,30,2024-01-01T12:00:00
+                2,"Doe, Jr.",doe@test.com,,2024-01-01T12:00:00
+                """, read(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+    }
+
+    @Test
+    void write_ndjsonZstd_resumesAfterGivenId() throws Exception {
+        streamUsers(5L,
+                new UserView(6L, "John", "john@test.com", 30, CREATED_AT, 0L),
+                new UserView(7L, "Jane", "jane@test.com", 25, CREATED_AT, 0L));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportWriter.write(ExportFormat.NDJSON, ExportCompression.ZSTD, 5L, out);
+
+        String[] lines = read(new ZstdCompressorInputStream(new ByteArrayInputStream(out.toByteArray()))).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":6,"));
+        assertTrue(lines[1].startsWith("{\"id\":7,"));
+    }
+
+    @Test
+    void write_xz_producesCompleteStream() throws Exception {
+        streamUsers(null, new UserView(1L, "John", "john@test.com", 30, CREATED_AT, 0L));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportWriter.write(ExportFormat.NDJSON, ExportCompression.XZ, null, out);
+
+        String body = read(new XZCompressorInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertTrue(body.startsWith("{\"id\":1,\"name\":\"John\""));
+        assertTrue(body.endsWith("}\n"));
+    }
+
+    @Test
+    void write_flushedRows_areReadableBeforeStreamEnds() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[][] partial = new byte[1][];
+        doAnswer(invocation -> {
+            Consumer<UserView> action = invocation.getArgument(1);
+            action.accept(new UserView(1L, "John", "john@test.com", 30, CREATED_AT, 0L));
+            partial[0] = out.toByteArray();
+            return null;
+        }).when(userService).streamAll(eq(null), any());
+
+        exportWriter.write(ExportFormat.NDJSON, ExportCompression.GZIP, null, out);
+
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(partial[0]));
+        byte[] buffer = new byte[256];
+        int read = in.read(buffer);
+        assertTrue(new String(buffer, 0, read, StandardCharsets.UTF_8).startsWith("{\"id\":1,"));
+    }
+
+    @Test
+    void fromParam_unknownValue_throwsBusinessException() {
+        assertEquals(ExportCompression.ZSTD, ExportCompression.fromParam("zstd"));
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParam("csv"));
+        assertThrows(BusinessException.class, () -> ExportCompression.fromParam("brotli"));
+        assertThrows(BusinessException.class, () -> ExportFormat.fromParam("xml"));
+    }
+
+    private void streamUsers(Long afterId, UserView... users) {
+        doAnswer(invocation -> {
+            Consumer<UserView> action = invocation.getArgument(1);
+            for (UserView user : users) {
+                action.accept(user);
+            }
+            return null;
+        }).when(userService).streamAll(eq(afterId), any());
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.hiber.api.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hiber.service.exceptions.BusinessException;
+import org.hiber.service.exceptions.EmailAlreadyExistsException;
+import org.hiber.service.exceptions.IdempotencyKeyInProgressException;
+import org.hiber.service.exceptions.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final IdempotencyStore store = new IdempotencyStore(100, 60_000, 5_000, meterRegistry);
+
+    @Test
+    void execute_sameKeyAndRequest_runsOnceAndReplays() {
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyStore.Result<Integer> first = store.execute("k1", "body", runs::incrementAndGet);
+        IdempotencyStore.Result<Integer> second = store.execute("k1", "body", runs::incrementAndGet);
+
+        assertFalse(first.isReplayed());
+        assertTrue(second.isReplayed());
+        assertEquals(1, second.getValue());
+        assertEquals(1, runs.get());
+        assertEquals(1.0, meterRegistry.get("user.idempotency.requests").tag("outcome", "replayed").counter().count());
+    }
+
+    @Test
+    void execute_sameKeyOtherRequest_isRejected() {
+        store.execute("k1", "body", () -> 1);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute("k1", "other", () -> 2));
+    }
+
+    @Test
+    void execute_invalidKey_throwsBusinessException() {
+        assertThrows(BusinessException.class, () -> store.execute(" ", "body", () -> 1));
+        assertThrows(BusinessException.class, () -> store.execute("k".repeat(256), "body", () -> 1));
+    }
+
+    @Test
+    void execute_failure_isNotRememberedSoRetryRunsAgain() {
+        assertThrows(EmailAlreadyExistsException.class, () -> store.execute("k1", "body", () -> {
+            throw new EmailAlreadyExistsException("john@test.com");
+        }));
+
+        IdempotencyStore.Result<Integer> retry = store.execute("k1", "body", () -> 2);
+
+        assertFalse(retry.isReplayed());
+        assertEquals(2, retry.getValue());
+    }
+
+    @Test
+    void execute_concurrentDuplicates_waitForSingleExecution() throws Exception {
+        int threads = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<IdempotencyStore.Result<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> store.execute("k1", "body", () -> {
+                    await(release);
+                    return runs.incrementAndGet();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            int replays = 0;
+            for (Future<IdempotencyStore.Result<Integer>> result : results) {
+                IdempotencyStore.Result<Integer> value = result.get(5, TimeUnit.SECONDS);
+                assertEquals(1, value.getValue());
+                replays += value.isReplayed() ? 1 : 0;
+            }
+            assertEquals(1, runs.get());
+            assertEquals(threads - 1, replays);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_duplicateOfSlowRequest_givesUpAfterWait() throws Exception {
+        IdempotencyStore impatient = new IdempotencyStore(100, 60_000, 50, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> impatient.execute("k1", "body", () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+            await(started);
+
+            assertThrows(IdempotencyKeyInProgressException.class, () -> impatient.execute("k1", "body", () -> 2));
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.hiber.api.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.hiber.api.dto.UserResponseDto;
+import org.hiber.repository.projection.UserView;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserViewJsonSerializerTest {
+
+    private final ObjectMapper dtoMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectMapper viewMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .registerModule(new SimpleModule().addSerializer(new UserViewJsonSerializer()));
+
+    @Test
+    void serialize_matchesResponseDtoForAllDateTimePrecisions() throws Exception {
+        assertCreatedAtSameAsDto(LocalDateTime.of(2025, 3, 7, 9, 5, 4, 123_456_789));
+        assertCreatedAtSameAsDto(LocalDateTime.of(2025, 3, 7, 9, 5, 4, 120_000_000));
+        assertCreatedAtSameAsDto(LocalDateTime.of(2025, 3, 7, 9, 5, 4, 5));
+        assertCreatedAtSameAsDto(LocalDateTime.of(2025, 12, 31, 23, 59));
+        assertCreatedAtSameAsDto(LocalDateTime.of(12025, 1, 1, 0, 0));
+        assertCreatedAtSameAsDto(null);
+    }
+
+    @Test
+    void serialize_nullsAndEscapes_matchResponseDto() throws Exception {
+        assertSameAsDto(new UserView(null, "Jo \"Q\"\n", "jo@test.com", null, null, 0L));
+    }
+
+    @Test
+    void serialize_doesNotExposeVersion() throws Exception {
+        String json = viewMapper.writeValueAsString(new UserView(1L, "John", "john@test.com", 30, null, 4L));
+
+        assertEquals("{\"id\":1,\"name\":\"John\",\"email\":\"john@test.com\",\"age\":30,\"createdAt\":null}", json);
+    }
+
+    private void assertCreatedAtSameAsDto(LocalDateTime createdAt) throws Exception {
+        assertSameAsDto(new UserView(1L, "John", "john@test.com", 30, createdAt, 0L));
+    }
+
+    private void assertSameAsDto(UserView user) throws Exception {
+        UserResponseDto dto = new UserResponseDto();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setAge(user.getAge());
+        dto.setCreatedAt(user.getCreatedAt());
+
+        assertEquals(dtoMapper.writeValueAsString(dto), viewMapper.writeValueAsString(user));
+    }
+}
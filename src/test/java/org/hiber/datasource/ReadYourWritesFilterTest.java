@@ -0,0 +1,55 @@
+package org.hiber.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(5000);
+
+    @Test
+    void write_setsCookieAndReadsFromPrimaryDuringRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(readsFromPrimary(new MockHttpServletRequest("POST", "/api/users"), response));
+
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+        assertEquals(5, cookie.getMaxAge());
+        assertFalse(ReadYourWrites.isActive());
+    }
+
+    @Test
+    void read_withUnexpiredCookie_readsFromPrimary() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, String.valueOf(System.currentTimeMillis() + 5000)));
+
+        assertTrue(readsFromPrimary(request, new MockHttpServletResponse()));
+    }
+
+    @Test
+    void read_withExpiredOrMissingCookie_mayUseReplica() throws Exception {
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/users/1");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, String.valueOf(System.currentTimeMillis() - 1)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(readsFromPrimary(expired, response));
+        assertFalse(readsFromPrimary(new MockHttpServletRequest("GET", "/api/users/1"), response));
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE));
+    }
+
+    private boolean readsFromPrimary(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicBoolean primary = new AtomicBoolean();
+        FilterChain chain = (req, res) -> primary.set(ReadYourWrites.isActive());
+        filter.doFilter(request, response, chain);
+        return primary.get();
+    }
+}
@@ -0,0 +1,56 @@
+package org.hiber.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesTest {
+
+    @Test
+    void propagate_activeOnSubmittingThread_readsFromPrimaryOnWorker() throws Exception {
+        CompletableFuture<Boolean> primary = new CompletableFuture<>();
+        Runnable task;
+        try (ReadYourWrites.Scope ignored = ReadYourWrites.stickToPrimary()) {
+            task = ReadYourWrites.propagate(() -> primary.complete(ReadYourWrites.isActive()));
+        }
+
+        assertTrue(runOnOtherThread(task, primary));
+    }
+
+    @Test
+    void propagate_inactiveOnSubmittingThread_mayUseReplicaOnWorker() throws Exception {
+        CompletableFuture<Boolean> primary = new CompletableFuture<>();
+
+        Runnable task = ReadYourWrites.propagate(() -> primary.complete(ReadYourWrites.isActive()));
+
+        assertFalse(runOnOtherThread(task, primary));
+    }
+
+    @Test
+    void propagate_clearsMarkOnWorkerAfterTask() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            try (ReadYourWrites.Scope ignored = ReadYourWrites.stickToPrimary()) {
+                executor.submit(ReadYourWrites.propagate(() -> { })).get();
+            }
+
+            assertFalse(executor.submit(ReadYourWrites::isActive).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean runOnOtherThread(Runnable task, CompletableFuture<Boolean> primary) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.execute(task);
+            return primary.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.hiber.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource first;
+
+    @Mock
+    private DataSource second;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection firstConnection;
+
+    @Mock
+    private Connection secondConnection;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReplicaDataSource replicas;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        replicas = new ReplicaDataSource(primary, List.of(first, second), 1000, meterRegistry);
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(first.getConnection()).thenReturn(firstConnection);
+        lenient().when(second.getConnection()).thenReturn(secondConnection);
+    }
+
+    @Test
+    void getConnection_beforeFirstLagCheck_usesPrimary() throws SQLException {
+        assertSame(primaryConnection, replicas.getConnection());
+        verifyNoInteractions(first, second);
+    }
+
+    @Test
+    void getConnection_healthyReplicas_roundRobin() throws SQLException {
+        reportLag(firstConnection, 0);
+        reportLag(secondConnection, 200);
+        replicas.checkLag();
+
+        List<Connection> served = List.of(replicas.getConnection(), replicas.getConnection(), replicas.getConnection());
+
+        assertEquals(List.of(firstConnection, secondConnection, firstConnection), served);
+        assertEquals(3, meterRegistry.get("user.datasource.reads").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    void getConnection_laggingReplica_isSkipped() throws SQLException {
+        reportLag(firstConnection, 5000);
+        reportLag(secondConnection, 0);
+        replicas.checkLag();
+
+        assertSame(secondConnection, replicas.getConnection());
+        assertSame(secondConnection, replicas.getConnection());
+        assertEquals(5000.0, meterRegistry.get("user.datasource.replica.lag").tag("replica", "0").gauge().value());
+    }
+
+    @Test
+    void getConnection_allReplicasLagging_fallsBackToPrimary() throws SQLException {
+        reportLag(firstConnection, 5000);
+        when(second.getConnection()).thenThrow(new SQLException("connection refused"));
+        replicas.checkLag();
+
+        assertSame(primaryConnection, replicas.getConnection());
+        assertEquals(1, meterRegistry.get("user.datasource.reads").tag("target", "primary").counter().count());
+    }
+
+    @Test
+    void getConnection_replicaNotStreaming_isSkipped() throws SQLException {
+        ResultSet disconnected = reportLag(firstConnection, 0);
+        when(disconnected.wasNull()).thenReturn(true);
+        reportLag(secondConnection, 0);
+        replicas.checkLag();
+
+        assertSame(secondConnection, replicas.getConnection());
+        assertSame(secondConnection, replicas.getConnection());
+    }
+
+    @Test
+    void getConnection_replicaRefusesConnection_triesNextReplica() throws SQLException {
+        reportLag(firstConnection, 0);
+        reportLag(secondConnection, 0);
+        replicas.checkLag();
+        when(first.getConnection()).thenThrow(new SQLException("too many connections"));
+
+        assertSame(secondConnection, replicas.getConnection());
+        assertSame(secondConnection, replicas.getConnection());
+        verify(first, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnection_readYourWrites_usesPrimary() throws SQLException {
+        reportLag(firstConnection, 0);
+        reportLag(secondConnection, 0);
+        replicas.checkLag();
+
+        try (ReadYourWrites.Scope ignored = ReadYourWrites.stickToPrimary()) {
+            assertSame(primaryConnection, replicas.getConnection());
+        }
+        assertNotSame(primaryConnection, replicas.getConnection());
+    }
+
+    @Test
+    void lazyProxy_routesOnlyReadOnlyTransactionsToReplicas() throws SQLException {
+        reportLag(firstConnection, 0);
+        reportLag(secondConnection, 0);
+        replicas.checkLag();
+        clearInvocations(first, second);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicas);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transactionTemplate.executeWithoutResult(status -> createStatement(dataSource));
+        verifyNoInteractions(first, second);
+
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> createStatement(dataSource));
+        verify(first).getConnection();
+    }
+
+    private static void createStatement(DataSource dataSource) {
+        try {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ResultSet reportLag(Connection connection, double lagMs) throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(lagMs);
+        return resultSet;
+    }
+}
@@ -0,0 +1,138 @@
+package org.hiber.kafka.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hiber.entity.OutboxEvent;
+import org.hiber.kafka.dto.OperationType;
+import org.hiber.kafka.dto.UserNotificationEvent;
+import org.hiber.kafka.producer.UserNotificationProducer;
+import org.hiber.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private UserNotificationProducer notificationProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventRepository, notificationProducer, objectMapper, transactionManager,
+                meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "pollIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(relay, "maxBackoffMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_sendsEventsInOrderAndDeletesThem() throws Exception {
+        OutboxEvent first = outboxEvent(1L, new UserNotificationEvent(OperationType.CREATE, "a@test.com"));
+        OutboxEvent second = outboxEvent(2L, new UserNotificationEvent(OperationType.DELETE, "a@test.com"));
+        when(outboxEventRepository.lockOldest(2)).thenReturn(List.of(first, second));
+
+        int relayed = relay.relayBatch();
+
+        assertEquals(2, relayed);
+        ArgumentCaptor<List<UserNotificationEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationProducer).sendBatch(captor.capture());
+        assertEquals(OperationType.CREATE, captor.getValue().get(0).getOperation());
+        assertEquals(OperationType.DELETE, captor.getValue().get(1).getOperation());
+        verify(outboxEventRepository).deleteByIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    void relayBatch_emptyOutbox_sendsNothing() {
+        when(outboxEventRepository.lockOldest(2)).thenReturn(List.of());
+
+        assertEquals(0, relay.relayBatch());
+
+        verifyNoInteractions(notificationProducer);
+        verify(outboxEventRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    void relayBatch_sendFails_keepsEventsInOutbox() throws Exception {
+        OutboxEvent event = outboxEvent(1L, new UserNotificationEvent(OperationType.CREATE, "a@test.com"));
+        when(outboxEventRepository.lockOldest(2)).thenReturn(List.of(event));
+        doThrow(new IllegalStateException("broker down")).when(notificationProducer).sendBatch(anyList());
+
+        assertThrows(IllegalStateException.class, () -> relay.relayBatch());
+
+        verify(outboxEventRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    void wakeUp_drainsRightAwayInsteadOfWaitingForPoll() {
+        when(outboxEventRepository.lockOldest(2)).thenReturn(List.of());
+        relay.start();
+        verify(outboxEventRepository, timeout(2000).times(1)).lockOldest(2);
+
+        relay.wakeUp();
+
+        verify(outboxEventRepository, timeout(2000).times(2)).lockOldest(2);
+    }
+
+    @Test
+    void drain_failure_backsOffAndIgnoresWakeUps() throws Exception {
+        ReflectionTestUtils.setField(relay, "pollIntervalMs", 500L);
+        when(outboxEventRepository.lockOldest(2)).thenThrow(new IllegalStateException("database is down"));
+        relay.start();
+        verify(outboxEventRepository, timeout(2000).times(1)).lockOldest(2);
+
+        relay.wakeUp();
+        relay.wakeUp();
+        Thread.sleep(200);
+
+        verify(outboxEventRepository, times(1)).lockOldest(2);
+        assertEquals(500.0, meterRegistry.get("user.outbox.relay.backoff").gauge().value());
+        verify(outboxEventRepository, timeout(2000).times(2)).lockOldest(2);
+    }
+
+    @Test
+    void drain_failure_returnsFalseAndKeepsEvents() {
+        when(outboxEventRepository.lockOldest(2)).thenThrow(new IllegalStateException("database is down"));
+
+        assertFalse(relay.drain());
+
+        verify(outboxEventRepository, never()).deleteByIdIn(any());
+    }
+
+    private OutboxEvent outboxEvent(Long id, UserNotificationEvent event) throws Exception {
+        OutboxEvent outboxEvent = new OutboxEvent(event.getEmail(), objectMapper.writeValueAsString(event));
+        outboxEvent.setId(id);
+        return outboxEvent;
+    }
+}
@@ -0,0 +1,107 @@
+package org.hiber.kafka.producer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hiber.kafka.dto.OperationType;
+import org.hiber.kafka.dto.UserNotificationEvent;
+import org.hiber.kafka.dto.UserSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserNotificationProducerTest {
+
+    private static final String TOPIC = "user.notifications";
+
+    private static final String SNAPSHOT_TOPIC = "user.snapshots";
+
+    @Mock
+    private KafkaTemplate<String, UserNotificationEvent> kafkaTemplate;
+
+    @Mock
+    private KafkaTemplate<String, UserSnapshot> snapshotTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserNotificationProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        producer = new UserNotificationProducer(kafkaTemplate, snapshotTemplate, meterRegistry);
+        ReflectionTestUtils.setField(producer, "topic", TOPIC);
+        ReflectionTestUtils.setField(producer, "snapshotTopic", SNAPSHOT_TOPIC);
+        ReflectionTestUtils.setField(producer, "batchAckTimeoutMs", 1000L);
+    }
+
+    @Test
+    void sendBatch_allAcknowledged_recordsSuccessAndDrainsInFlight() {
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any(UserNotificationEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        producer.sendBatch(List.of(
+                new UserNotificationEvent(OperationType.CREATE, "a@test.com"),
+                new UserNotificationEvent(OperationType.DELETE, "b@test.com")));
+
+        verify(kafkaTemplate).send(eq(TOPIC), eq("a@test.com"), any(UserNotificationEvent.class));
+        verifyNoInteractions(snapshotTemplate);
+        assertEquals(2, meterRegistry.get("user.notifications.send").tag("outcome", "success").timer().count());
+        assertEquals(0.0, meterRegistry.get("user.notifications.in.flight").gauge().value());
+    }
+
+    @Test
+    void sendBatch_eventsWithId_alsoPublishSnapshotsAndTombstones() {
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any(UserNotificationEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(snapshotTemplate.send(eq(SNAPSHOT_TOPIC), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        UserNotificationEvent deleted = new UserNotificationEvent(OperationType.DELETE, "a@test.com");
+        deleted.setId(7L);
+
+        producer.sendBatch(List.of(
+                new UserNotificationEvent(OperationType.CREATE, "a@test.com", 7L, "Ann", 30, null, 0L),
+                deleted));
+
+        verify(snapshotTemplate).send(eq(SNAPSHOT_TOPIC), eq("7"),
+                argThat(snapshot -> snapshot != null && "Ann".equals(snapshot.getName())));
+        verify(snapshotTemplate).send(SNAPSHOT_TOPIC, "7", null);
+        assertEquals(4, meterRegistry.get("user.notifications.send").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void sendBatch_brokerRejects_throwsAndRecordsFailure() {
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any(UserNotificationEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThrows(IllegalStateException.class, () -> producer.sendBatch(List.of(
+                new UserNotificationEvent(OperationType.CREATE, "a@test.com"))));
+
+        assertEquals(1, meterRegistry.get("user.notifications.send").tag("outcome", "failure").timer().count());
+        assertEquals(0.0, meterRegistry.get("user.notifications.in.flight").gauge().value());
+    }
+
+    @Test
+    void send_pendingAck_countsAsInFlight() {
+        CompletableFuture<SendResult<String, UserNotificationEvent>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any(UserNotificationEvent.class))).thenReturn(pending);
+
+        producer.send(new UserNotificationEvent(OperationType.CREATE, "a@test.com"));
+
+        assertEquals(1.0, meterRegistry.get("user.notifications.in.flight").gauge().value());
+        pending.complete(null);
+        assertEquals(0.0, meterRegistry.get("user.notifications.in.flight").gauge().value());
+    }
+}
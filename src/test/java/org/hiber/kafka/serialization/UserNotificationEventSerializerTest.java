@@ -0,0 +1,84 @@
+package org.hiber.kafka.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.hiber.kafka.dto.OperationType;
+import org.hiber.kafka.dto.UserNotificationEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserNotificationEventSerializerTest {
+
+    private final UserNotificationEventSerializer serializer = new UserNotificationEventSerializer();
+    private final UserNotificationEventDeserializer deserializer = new UserNotificationEventDeserializer();
+
+    @ParameterizedTest
+    @EnumSource(OperationType.class)
+    void roundTrip_everyOperation(OperationType operation) {
+        UserNotificationEvent event = new UserNotificationEvent(operation, "user@example.com");
+
+        UserNotificationEvent read = deserializer.deserialize("topic", serializer.serialize("topic", event));
+
+        assertEquals(operation, read.getOperation());
+        assertEquals("user@example.com", read.getEmail());
+    }
+
+    @Test
+    void roundTrip_nonAsciiAndLongEmail() {
+        String email = "пользователь.😀".repeat(10) + "@пример.рф";
+        byte[] bytes = serializer.serialize("topic", new UserNotificationEvent(OperationType.CREATE, email));
+
+        assertEquals(2 + 2 + email.getBytes(StandardCharsets.UTF_8).length, bytes.length);
+        assertEquals(email, deserializer.deserialize("topic", bytes).getEmail());
+    }
+
+    @Test
+    void serialize_unpairedSurrogates_writesQuestionMarkLikeStringGetBytes() {
+        String email = "a\uD83D@b\uDE00.c\uD83D";
+        byte[] utf8 = email.getBytes(StandardCharsets.UTF_8);
+
+        byte[] bytes = serializer.serialize("topic", new UserNotificationEvent(OperationType.CREATE, email));
+
+        assertArrayEquals(utf8, Arrays.copyOfRange(bytes, 3, bytes.length));
+        assertEquals("a?@b?.c?", deserializer.deserialize("topic", bytes).getEmail());
+    }
+
+    @Test
+    void serialize_isSmallerThanJson() {
+        UserNotificationEvent event = new UserNotificationEvent(OperationType.DELETE, "user@example.com");
+        byte[] json = new JsonSerializer<UserNotificationEvent>().noTypeInfo().serialize("topic", event);
+
+        byte[] binary = serializer.serialize("topic", event);
+
+        assertEquals(3 + "user@example.com".length(), binary.length);
+        assertTrue(binary.length < json.length / 2);
+    }
+
+    @Test
+    void deserialize_unknownVersion_throws() {
+        byte[] bytes = serializer.serialize("topic", new UserNotificationEvent(OperationType.CREATE, "a@b.c"));
+        bytes[0] = 99;
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("topic", bytes));
+    }
+
+    @Test
+    void deserialize_truncated_throws() {
+        byte[] bytes = serializer.serialize("topic", new UserNotificationEvent(OperationType.CREATE, "a@b.c"));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("topic", truncated));
+    }
+
+    @Test
+    void nullEvent_roundTripsAsNull() {
+        assertNull(serializer.serialize("topic", null));
+        assertNull(deserializer.deserialize("topic", null));
+    }
+}
@@ -0,0 +1,68 @@
+package org.hiber.kafka.view;
+
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.hiber.kafka.dto.UserSnapshot;
+import org.hiber.service.email.EmailMembershipIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.condition.EmbeddedKafkaCondition;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+
+@EmbeddedKafka(partitions = 2, topics = KafkaEmailIndexFeedTest.SNAPSHOTS)
+class KafkaEmailIndexFeedTest {
+
+    static final String SNAPSHOTS = "user.snapshots";
+
+    private final EmailMembershipIndex emailIndex = mock(EmailMembershipIndex.class);
+
+    private KafkaTemplate<String, UserSnapshot> template;
+    private KafkaEmailIndexFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddedKafkaBroker broker = EmbeddedKafkaCondition.getBroker();
+        template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(broker),
+                new StringSerializer(), new JsonSerializer<UserSnapshot>().noTypeInfo()));
+
+        feed = new KafkaEmailIndexFeed(emailIndex);
+        ReflectionTestUtils.setField(feed, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(feed, "topic", SNAPSHOTS);
+        ReflectionTestUtils.setField(feed, "pollTimeoutMs", 100L);
+        ReflectionTestUtils.setField(feed, "replayMs", 60_000L);
+        ReflectionTestUtils.setField(feed, "retryMs", 100L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    @Test
+    void feed_addsEmailsWrittenSinceStartAndKeepsTailing() {
+        template.send(SNAPSHOTS, "1", snapshot(1L, "fay@test.com"));
+        template.send(SNAPSHOTS, "2", null);
+        template.flush();
+
+        feed.start();
+        verify(emailIndex, timeout(30_000)).add("fay@test.com");
+
+        template.send(SNAPSHOTS, "3", snapshot(3L, "gus@test.com"));
+        verify(emailIndex, timeout(30_000)).add("gus@test.com");
+        verify(emailIndex, never()).remove(anyString());
+    }
+
+    private static UserSnapshot snapshot(Long id, String email) {
+        return new UserSnapshot(id, "Name", email, 30, LocalDateTime.of(2025, 1, 1, 12, 0), 0L);
+    }
+}
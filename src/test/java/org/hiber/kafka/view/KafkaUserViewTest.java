@@ -0,0 +1,185 @@
+package org.hiber.kafka.view;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.hiber.kafka.dto.OperationType;
+import org.hiber.kafka.dto.UserNotificationEvent;
+import org.hiber.kafka.dto.UserSnapshot;
+import org.hiber.kafka.producer.UserNotificationProducer;
+import org.hiber.repository.projection.UserView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.condition.EmbeddedKafkaCondition;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+@EmbeddedKafka(partitions = 2, topics = {KafkaUserViewTest.NOTIFICATIONS, KafkaUserViewTest.SNAPSHOTS})
+class KafkaUserViewTest {
+
+    static final String NOTIFICATIONS = "user.notifications";
+    static final String SNAPSHOTS = "user.snapshots";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmbeddedKafkaBroker broker;
+    private UserNotificationProducer producer;
+    private KafkaUserView view;
+
+    @BeforeEach
+    void setUp() {
+        broker = EmbeddedKafkaCondition.getBroker();
+        producer = new UserNotificationProducer(template(), template(), meterRegistry);
+        ReflectionTestUtils.setField(producer, "topic", NOTIFICATIONS);
+        ReflectionTestUtils.setField(producer, "snapshotTopic", SNAPSHOTS);
+        ReflectionTestUtils.setField(producer, "batchAckTimeoutMs", 10_000L);
+
+        view = new KafkaUserView(meterRegistry);
+        ReflectionTestUtils.setField(view, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(view, "topic", SNAPSHOTS);
+        ReflectionTestUtils.setField(view, "pollTimeoutMs", 100L);
+        ReflectionTestUtils.setField(view, "maxStalenessMs", 10_000L);
+        ReflectionTestUtils.setField(view, "retryMs", 100L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        view.stop();
+    }
+
+    @Test
+    void view_rebuildsLatestStateFromTopicAndKeepsTailing() {
+        producer.sendBatch(List.of(
+                event(OperationType.CREATE, 1L, "Ann", "ann@test.com", 0L),
+                event(OperationType.CREATE, 2L, "Bob", "bob@test.com", 0L),
+                event(OperationType.UPDATE, 1L, "Anna", "anna@test.com", 1L),
+                deleted(2L, "bob@test.com")));
+        assertTrue(view.find(1L).isEmpty());
+
+        view.start();
+        await().atMost(Duration.ofSeconds(30)).until(view::isReady);
+
+        UserView ann = view.find(1L).orElseThrow();
+        assertEquals("Anna", ann.getName());
+        assertEquals("anna@test.com", ann.getEmail());
+        assertEquals(1L, ann.getVersion());
+        assertTrue(view.find(2L).isEmpty());
+        assertEquals(1.0, meterRegistry.get("user.view.size").gauge().value());
+
+        producer.send(event(OperationType.CREATE, 3L, "Cid", "cid@test.com", 0L));
+        await().atMost(Duration.ofSeconds(30)).until(() -> view.find(3L).isPresent());
+        assertEquals("Cid", view.find(3L).orElseThrow().getName());
+    }
+
+    @Test
+    void view_consumerFails_rebuildsAndBecomesReady() {
+        producer.send(event(OperationType.CREATE, 30L, "Fay", "fay@test.com", 0L));
+        ReflectionTestUtils.setField(view, "bootstrapServers", "unresolvable.invalid:9092");
+
+        view.start();
+        await().pollDelay(Duration.ofMillis(300)).atMost(Duration.ofSeconds(5)).until(() -> !view.isReady());
+        ReflectionTestUtils.setField(view, "bootstrapServers", broker.getBrokersAsString());
+
+        await().atMost(Duration.ofSeconds(30)).until(view::isReady);
+        assertEquals("Fay", view.find(30L).orElseThrow().getName());
+    }
+
+    @Test
+    void find_notInSyncForMaxStaleness_fallsBack() {
+        markInSync(System.currentTimeMillis());
+        view.apply(snapshot(40L, "Gus", 0L, 0));
+        assertTrue(view.find(40L).isPresent());
+
+        markInSync(System.currentTimeMillis() - 10_001L);
+
+        assertFalse(view.isReady());
+        assertTrue(view.find(40L).isEmpty());
+    }
+
+    @Test
+    void apply_staleSnapshot_keepsNewerVersion() {
+        markInSync(System.currentTimeMillis());
+
+        view.apply(snapshot(20L, "Eve", 0L, 0));
+        view.apply(snapshot(20L, "Eva", 2L, 1));
+        view.apply(snapshot(20L, "Ev", 1L, 2));
+
+        UserView eve = view.find(20L).orElseThrow();
+        assertEquals("Eva", eve.getName());
+        assertEquals(2L, eve.getVersion());
+    }
+
+    @Test
+    void producer_keysNotificationsByEmailAndSnapshotsById() {
+        producer.sendBatch(List.of(
+                event(OperationType.CREATE, 10L, "Dan", "dan@test.com", 0L),
+                deleted(10L, "dan@test.com")));
+
+        List<ConsumerRecord<String, String>> snapshots = readKey(SNAPSHOTS, "10", 2);
+        assertTrue(snapshots.get(0).value().contains("\"name\":\"Dan\""));
+        assertNull(snapshots.get(1).value());
+
+        List<ConsumerRecord<String, String>> notifications = readKey(NOTIFICATIONS, "dan@test.com", 2);
+        assertTrue(notifications.get(0).value().contains("\"id\":10"));
+    }
+
+    private void markInSync(long syncedAtMs) {
+        ReflectionTestUtils.setField(view, "ready", true);
+        ReflectionTestUtils.setField(view, "syncedAtMs", syncedAtMs);
+    }
+
+    private List<ConsumerRecord<String, String>> readKey(String topic, String key, int expected) {
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(
+                KafkaTestUtils.consumerProps(topic + "-reader", "false", broker),
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, topic);
+            List<ConsumerRecord<String, String>> records = new ArrayList<>();
+            await().atMost(Duration.ofSeconds(30)).until(() -> {
+                consumer.poll(Duration.ofMillis(200)).forEach(record -> {
+                    if (key.equals(record.key())) {
+                        records.add(record);
+                    }
+                });
+                return records.size() >= expected;
+            });
+            return records;
+        }
+    }
+
+    private <V> KafkaTemplate<String, V> template() {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(broker),
+                new StringSerializer(), new JsonSerializer<V>().noTypeInfo()));
+    }
+
+    private static UserNotificationEvent event(OperationType operation, Long id, String name, String email, Long version) {
+        return new UserNotificationEvent(operation, email, id, name, 30, LocalDateTime.of(2025, 1, 1, 12, 0), version);
+    }
+
+    private static ConsumerRecord<String, UserSnapshot> snapshot(Long id, String name, Long version, long offset) {
+        return new ConsumerRecord<>(SNAPSHOTS, 0, offset, id.toString(), new UserSnapshot(id, name,
+                name.toLowerCase() + "@test.com", 30, LocalDateTime.of(2025, 1, 1, 12, 0), version));
+    }
+
+    private static UserNotificationEvent deleted(Long id, String email) {
+        UserNotificationEvent event = new UserNotificationEvent(OperationType.DELETE, email);
+        event.setId(id);
+        return event;
+    }
+}
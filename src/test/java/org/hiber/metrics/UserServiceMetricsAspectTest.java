@@ -0,0 +1,107 @@
+package org.hiber.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hiber.entity.User;
+import org.hiber.repository.projection.UserView;
+import org.hiber.service.UserService;
+import org.hiber.service.exceptions.BusinessException;
+import org.hiber.service.exceptions.EmailAlreadyExistsException;
+import org.hiber.service.exceptions.UserNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceMetricsAspectTest {
+
+    @Mock
+    private UserService target;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new UserServiceMetricsAspect(meterRegistry));
+        userService = factory.getProxy();
+    }
+
+    @Test
+    void findById_success_recordsOkOutcome() {
+        when(target.findById(1L)).thenReturn(new UserView(1L, "John", "john@test.com", 30, null, 0L));
+
+        userService.findById(1L);
+        userService.findById(1L);
+
+        assertEquals(2, timerCount("findById", "ok"));
+    }
+
+    @Test
+    void findById_successThenNotFound_keepsOneTimerPerOutcome() {
+        when(target.findById(1L)).thenReturn(new UserView(1L, "John", "john@test.com", 30, null, 0L));
+        when(target.findById(2L)).thenThrow(new UserNotFoundException(2L));
+
+        userService.findById(1L);
+        assertThrows(UserNotFoundException.class, () -> userService.findById(2L));
+        userService.findById(1L);
+
+        assertEquals(2, timerCount("findById", "ok"));
+        assertEquals(1, timerCount("findById", "not_found"));
+        assertEquals(2, meterRegistry.find(UserServiceMetricsAspect.TIMER_NAME).timers().size());
+    }
+
+    @Test
+    void deleteById_notFound_recordsNotFoundOutcome() {
+        doThrow(new UserNotFoundException(1L)).when(target).deleteById(1L);
+
+        assertThrows(UserNotFoundException.class, () -> userService.deleteById(1L));
+
+        assertEquals(1, timerCount("deleteById", "not_found"));
+    }
+
+    @Test
+    void create_duplicateEmail_recordsConflictOutcome() {
+        when(target.create(any(User.class))).thenThrow(new EmailAlreadyExistsException("a@test.com"));
+
+        assertThrows(EmailAlreadyExistsException.class, () -> userService.create(new User()));
+
+        assertEquals(1, timerCount("create", "conflict"));
+    }
+
+    @Test
+    void update_invalidInput_recordsValidationOutcome() {
+        when(target.update(any(User.class))).thenThrow(new BusinessException("User id is null"));
+
+        assertThrows(BusinessException.class, () -> userService.update(new User()));
+
+        assertEquals(1, timerCount("update", "validation"));
+    }
+
+    @Test
+    void findAll_unexpectedFailure_recordsErrorOutcome() {
+        when(target.findAll()).thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class, () -> userService.findAll());
+
+        assertEquals(1, timerCount("findAll", "error"));
+    }
+
+    private long timerCount(String method, String outcome) {
+        return meterRegistry.get(UserServiceMetricsAspect.TIMER_NAME)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
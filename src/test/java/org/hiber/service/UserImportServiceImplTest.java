@@ -0,0 +1,172 @@
+package org.hiber.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hiber.repository.UserRepository;
+import org.hiber.repository.importing.StagedConflict;
+import org.hiber.repository.importing.UserStagingWriter;
+import org.hiber.service.email.EmailMembershipIndex;
+import org.hiber.service.exceptions.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceImplTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EmailMembershipIndex emailIndex;
+
+    private final List<String> staged = new ArrayList<>();
+
+    private UserImportServiceImpl importService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        importService = new UserImportServiceImpl(userRepository, emailIndex, VALIDATOR, new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 100);
+        lenient().when(userRepository.copyToStaging(any())).thenAnswer(invocation -> {
+            UserStagingWriter writer = (row, name, email, age) -> staged.add(row + ":" + name + ":" + email + ":" + age);
+            invocation.<Consumer<UserStagingWriter>>getArgument(0).accept(writer);
+            return (long) staged.size();
+        });
+    }
+
+    @Test
+    void importUsers_csv_stagesValidRowsAndReportsInvalidOnes() {
+        String csv = """
+                name,email,age
+                John,john@test.com,30
+                ,blank@test.com,20
+                Jane,not-an-email,
+                "Doe, Jr.",doe@test.com,
+                Old,old@test.com,-1
+                Bad,bad@test.com,abc
+                """;
+
+        ImportResult result = importService.importUsers(input(csv), ImportFormat.CSV);
+
+        assertEquals(List.of("1:John:john@test.com:30", "4:Doe, Jr.:doe@test.com:null"), staged);
+        verify(emailIndex).add("john@test.com");
+        verify(emailIndex).add("doe@test.com");
+        verifyNoMoreInteractions(emailIndex);
+        assertEquals(6, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getRejected());
+        assertEquals(0, result.getConflicts());
+        assertEquals(List.of(2L, 3L, 5L, 6L), result.getErrors().stream().map(ImportRowError::getRow).toList());
+        assertEquals("name name must not be blank", result.getErrors().get(0).getMessage());
+        assertEquals("email is not valid", result.getErrors().get(1).getMessage());
+        assertEquals("age must be >= 0", result.getErrors().get(2).getMessage());
+        assertNull(result.getErrors().get(3).getEmail());
+    }
+
+    @Test
+    void importUsers_csv_ignoresUnknownAndTrailingColumns() {
+        String csv = """
+                email,name,age,comment
+                john@test.com,John,30,vip
+                jane@test.com,Jane,25,a,b
+                """;
+
+        ImportResult result = importService.importUsers(input(csv), ImportFormat.CSV);
+
+        assertEquals(List.of("1:John:john@test.com:30", "2:Jane:jane@test.com:25"), staged);
+        assertEquals(0, result.getRejected());
+    }
+
+    @Test
+    void importUsers_ndjson_stagesRowsAndSkipsMistypedOnes() {
+        String ndjson = """
+                {"name":"John","email":"john@test.com","age":30}
+                {"name":"Jane","email":"jane@test.com","age":"old"}
+                {"name":"Jack","email":"jack@test.com"}
+                """;
+
+        ImportResult result = importService.importUsers(input(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(List.of("1:John:john@test.com:30", "3:Jack:jack@test.com:null"), staged);
+        assertEquals(3, result.getReceived());
+        assertEquals(1, result.getRejected());
+        assertEquals(2L, result.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void importUsers_malformedNdjson_throwsBusinessException() {
+        String ndjson = """
+                {"name":"John","email":"john@test.com"}
+                {"name":"Jane",
+                """;
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> importService.importUsers(input(ndjson), ImportFormat.NDJSON));
+
+        assertEquals("Malformed NDJSON input at row 2", ex.getMessage());
+        verify(userRepository, never()).mergeStaged(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_conflicts_areSubtractedFromImported() {
+        doAnswer(invocation -> {
+            Consumer<StagedConflict> conflicts = invocation.getArgument(0);
+            conflicts.accept(new StagedConflict(1, "john@test.com", false));
+            conflicts.accept(new StagedConflict(3, "jane@test.com", true));
+            return null;
+        }).when(userRepository).mergeStaged(any());
+        String csv = """
+                name,email
+                John,john@test.com
+                Jane,jane@test.com
+                Jane2,jane@test.com
+                """;
+
+        ImportResult result = importService.importUsers(input(csv), ImportFormat.CSV);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getConflicts());
+        assertEquals("Email already exists", result.getErrors().get(0).getMessage());
+        assertEquals("Email is duplicated in the import", result.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    void importUsers_reportsOnlyFirstErrors() {
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 2);
+        StringBuilder csv = new StringBuilder("name,email\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append("User").append(i).append(",invalid\n");
+        }
+
+        ImportResult result = importService.importUsers(input(csv.toString()), ImportFormat.CSV);
+
+        assertEquals(10, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(staged.isEmpty());
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
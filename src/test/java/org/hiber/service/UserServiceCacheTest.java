@@ -0,0 +1,114 @@
+package org.hiber.service;
+
+import org.hiber.entity.User;
+import org.hiber.kafka.outbox.UserNotificationOutbox;
+import org.hiber.kafka.view.KafkaUserView;
+import org.hiber.repository.UserRepository;
+import org.hiber.repository.projection.UserView;
+import org.hiber.service.email.EmailMembershipIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class UserServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(UserServiceImpl.class)
+    static class CacheConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(UserServiceImpl.USERS_CACHE);
+        }
+    }
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private UserNotificationOutbox notificationOutbox;
+
+    @MockBean
+    private EmailMembershipIndex emailIndex;
+
+    @MockBean
+    private KafkaUserView kafkaUserView;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private UserView user;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(UserServiceImpl.USERS_CACHE).clear();
+        user = new UserView(1L, "Cached", "cached@example.com", 30, LocalDateTime.of(2024, 1, 1, 0, 0), 0L);
+        when(userRepository.findViewById(1L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void findById_secondCall_servedFromCache() {
+        assertSame(user, userService.findById(1L));
+        assertSame(user, userService.findById(1L));
+
+        verify(userRepository, times(1)).findViewById(1L);
+    }
+
+    @Test
+    void update_evictsCachedUser() {
+        User changed = new User("Changed", "cached@example.com", 31);
+        changed.setId(1L);
+        when(userRepository.updateIfExists(1L, "Changed", "cached@example.com", 31, null))
+                .thenReturn(Optional.of(changed));
+        userService.findById(1L);
+
+        userService.update(changed);
+        userService.findById(1L);
+
+        verify(userRepository, times(2)).findViewById(1L);
+    }
+
+    @Test
+    void deleteById_evictsCachedUser() {
+        when(userRepository.deleteByIdReturningEmail(1L)).thenReturn(Optional.of("cached@example.com"));
+        userService.findById(1L);
+
+        userService.deleteById(1L);
+        userService.findById(1L);
+
+        verify(userRepository, times(2)).findViewById(1L);
+    }
+
+    @Test
+    void findById_viewHit_isNotCached() {
+        UserView stale = new UserView(1L, "Stale", "cached@example.com", 30, LocalDateTime.of(2024, 1, 1, 0, 0), 0L);
+        when(kafkaUserView.isReady()).thenReturn(true);
+        when(kafkaUserView.find(1L)).thenReturn(Optional.of(stale));
+        assertSame(stale, userService.findById(1L));
+
+        when(kafkaUserView.isReady()).thenReturn(false);
+        when(kafkaUserView.find(1L)).thenReturn(Optional.empty());
+
+        assertSame(user, userService.findById(1L));
+        verify(userRepository, times(1)).findViewById(1L);
+    }
+}
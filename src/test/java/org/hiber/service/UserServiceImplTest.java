@@ -1,19 +1,34 @@
 package org.hiber.service;
 
 import org.hiber.entity.User;
-import org.hiber.kafka.producer.UserNotificationProducer;
+import org.hiber.kafka.dto.OperationType;
+import org.hiber.kafka.outbox.UserNotificationOutbox;
+import org.hiber.kafka.view.KafkaUserView;
 import org.hiber.repository.UserRepository;
+import org.hiber.repository.projection.UserView;
+import org.hiber.repository.search.UserFilter;
+import org.hiber.repository.search.UserKey;
+import org.hiber.repository.search.UserSort;
+import org.hiber.repository.search.UserSortField;
+import org.hiber.service.email.EmailMembershipIndex;
 import org.hiber.service.exceptions.BusinessException;
 import org.hiber.service.exceptions.EmailAlreadyExistsException;
 import org.hiber.service.exceptions.UserNotFoundException;
+import org.hiber.service.exceptions.UserVersionMismatchException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,11 +37,17 @@ import static org.mockito.Mockito.*;
 class UserServiceImplTest {
 
     @Mock
-    private UserNotificationProducer notificationProducer;
+    private UserNotificationOutbox notificationOutbox;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EmailMembershipIndex emailIndex;
+
+    @Mock
+    private ObjectProvider<KafkaUserView> kafkaUserView;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -51,59 +72,101 @@ class UserServiceImplTest {
     @Test
     void deleteById_validId_successfulDeletion() {
         long validId = 22;
-        User user = new User("Test", "test@test.com", 25);
-        user.setId(validId);
-        when(userRepository.findById(validId)).thenReturn(Optional.of(user));
+        when(userRepository.deleteByIdReturningEmail(validId)).thenReturn(Optional.of("test@test.com"));
         userService.deleteById(validId);
-        verify(userRepository).delete(user);
-        verify(notificationProducer).send(any());
+        verify(userRepository).deleteByIdReturningEmail(validId);
+        verify(userRepository, never()).findViewById(any());
+        verify(notificationOutbox).enqueue(argThat(event -> "test@test.com".equals(event.getEmail())
+                && event.getId() == validId && event.getOperation() == OperationType.DELETE));
+        verify(emailIndex).remove("test@test.com");
+    }
+
+    @Test
+    void deleteById_nonExistingUser_throwsUserNotFoundException() {
+        when(userRepository.deleteByIdReturningEmail(3L)).thenReturn(Optional.empty());
+        assertThrows(UserNotFoundException.class, () -> userService.deleteById(3L));
+        verifyNoInteractions(notificationOutbox);
     }
 
     @Test
     void create_nullUser_throwsBusinessException() {
         User nullUser = null;
         assertThrows(BusinessException.class, () -> userService.create(nullUser));
-        verify(userRepository, never()).save(any());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void create_userWithEmptyName_throwsBusinessException() {
         User user = new User("", "valid@email.com", 25);
         assertThrows(BusinessException.class, () -> userService.create(user));
-        verify(userRepository, never()).save(any());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void create_userWithEmptyEmail_throwsBusinessException() {
         User user = new User("Valid Name", "", 25);
         assertThrows(BusinessException.class, () -> userService.create(user));
-        verify(userRepository, never()).save(any());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void create_userWithExistingEmail_throwsEmailAlreadyExistsException() {
-        User existingUser = new User("ExampleUser", "test@example.com", 30);
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(existingUser));
+        when(userRepository.insertIfEmailAbsent("New User", "test@example.com", 25))
+                .thenReturn(Optional.empty());
         User newUser = new User("New User", "test@example.com", 25);
         assertThrows(EmailAlreadyExistsException.class, () -> userService.create(newUser));
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).findByEmail(any());
+        verifyNoInteractions(notificationOutbox);
     }
 
     @Test
-    void create_validUser_callsRepositorySaveOnce() {
+    void create_validUser_insertsOnceAndReturnsPersistedRow() {
         User newUser = new User("ValidUser", "validemail@example.com", 25);
+        User inserted = new User("ValidUser", "validemail@example.com", 25);
+        inserted.setId(7L);
 
-        when(userRepository.findByEmail("validemail@example.com"))
-                .thenReturn(Optional.empty());
-        when(userRepository.save(newUser))
-                .thenReturn(newUser);
+        when(userRepository.insertIfEmailAbsent("ValidUser", "validemail@example.com", 25))
+                .thenReturn(Optional.of(inserted));
 
         User result = userService.create(newUser);
 
-        assertNotNull(result);
-        verify(userRepository, times(1)).save(newUser);
+        assertSame(inserted, result);
+        verify(userRepository, times(1)).insertIfEmailAbsent("ValidUser", "validemail@example.com", 25);
+        verify(userRepository, never()).findByEmail(any());
+        verify(notificationOutbox).enqueue(argThat(event -> event.getId() == 7L && "ValidUser".equals(event.getName())));
+        verify(emailIndex).add("validemail@example.com");
     }
 
+    @Test
+    void createAll_reportsExistingAndRepeatedEmailsAsConflicts() {
+        User first = new User("First", "first@example.com", 20);
+        User taken = new User("Taken", "taken@example.com", 21);
+        User repeated = new User("Repeated", "first@example.com", 22);
+        when(userRepository.findExistingEmails(List.of("first@example.com", "taken@example.com", "first@example.com")))
+                .thenReturn(Set.of("taken@example.com"));
+        when(userRepository.saveAll(List.of(first))).thenReturn(List.of(first));
+
+        BatchCreateResult result = userService.createAll(List.of(first, taken, repeated));
+
+        assertEquals(List.of(first), result.getCreated());
+        assertEquals(2, result.getConflicts().size());
+        assertEquals(1, result.getConflicts().get(0).getIndex());
+        assertEquals(2, result.getConflicts().get(1).getIndex());
+        verify(notificationOutbox).enqueueAll(argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    void createAll_emptyBatch_throwsBusinessException() {
+        assertThrows(BusinessException.class, () -> userService.createAll(List.of()));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void createAll_invalidUser_throwsBusinessException() {
+        List<User> users = List.of(new User("Valid", "valid@example.com", 20), new User("", "x@example.com", 20));
+        assertThrows(BusinessException.class, () -> userService.createAll(users));
+        verifyNoInteractions(userRepository);
+    }
 
     @Test
     void findById_invalidId_throwsBusinessException() {
@@ -114,46 +177,119 @@ class UserServiceImplTest {
 
     @Test
     void findById_existingUser_returnsUser() {
-        User existingUser = new User("ExistingUserName", "ExUserEmail@example.com", 30);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        User result = userService.findById(1L);
+        UserView existingUser = view(1L, "ExistingUserName", "ExUserEmail@example.com", 30);
+        when(userRepository.findViewById(1L)).thenReturn(Optional.of(existingUser));
+        UserView result = userService.findById(1L);
         assertNotNull(result);
         assertEquals("ExistingUserName", result.getName());
         assertEquals("ExUserEmail@example.com", result.getEmail());
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findViewById(1L);
+    }
+
+    @Test
+    void findById_kafkaViewHit_skipsDatabase() {
+        KafkaUserView view = mock(KafkaUserView.class);
+        when(kafkaUserView.getIfAvailable()).thenReturn(view);
+        when(view.find(1L)).thenReturn(Optional.of(view(1L, "FromView", "view@example.com", 30)));
+
+        UserView result = userService.findById(1L);
+
+        assertEquals("FromView", result.getName());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findById_kafkaViewMiss_fallsBackToDatabase() {
+        KafkaUserView view = mock(KafkaUserView.class);
+        when(kafkaUserView.getIfAvailable()).thenReturn(view);
+        when(view.find(1L)).thenReturn(Optional.empty());
+        when(userRepository.findViewById(1L)).thenReturn(Optional.of(view(1L, "FromDb", "db@example.com", 30)));
+
+        assertEquals("FromDb", userService.findById(1L).getName());
     }
 
     @Test
     void findById_nonExistingUser_throwsUserNotFoundException() {
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userRepository.findViewById(2L)).thenReturn(Optional.empty());
         assertThrows(UserNotFoundException.class, () -> userService.findById(2L));
-        verify(userRepository, times(1)).findById(2L);
+        verify(userRepository, times(1)).findViewById(2L);
     }
 
     @Test
-    void update_validUser_callsUpdateIfExistsOnce() {
+    void update_validUser_returnsPersistedRow() {
         User user = new User("Username", "test@email.com", 25);
         user.setId(1L);
-        when(userRepository.updateIfExists(1L, "Username", "test@email.com", 25))
-                .thenReturn(1);
+        User persisted = new User("Username", "test@email.com", 25);
+        persisted.setId(1L);
+        persisted.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(userRepository.updateIfExists(1L, "Username", "test@email.com", 25, null))
+                .thenReturn(Optional.of(persisted));
 
         User result = userService.update(user);
 
-        assertNotNull(result);
+        assertSame(persisted, result);
+        assertNotNull(result.getCreatedAt());
         verify(userRepository, times(1))
-                .updateIfExists(1L, "Username", "test@email.com", 25);
+                .updateIfExists(1L, "Username", "test@email.com", 25, null);
+        verify(notificationOutbox).enqueue(argThat(event -> event.getOperation() == OperationType.UPDATE));
     }
 
     @Test
-    void update_nonExistingUser_noOp() {
+    void update_nonExistingUser_throwsUserNotFoundException() {
         User user = new User("nonExistingUser", "nonexistinguser@email.com", 25);
         user.setId(1L);
         when(userRepository.updateIfExists(1L, "nonExistingUser",
-                "nonexistinguser@email.com", 25))
-                .thenReturn(0);
-        userService.update(user);
-        verify(userRepository).updateIfExists(1L, "nonExistingUser",
-                "nonexistinguser@email.com", 25);
+                "nonexistinguser@email.com", 25, null))
+                .thenReturn(Optional.empty());
+        assertThrows(UserNotFoundException.class, () -> userService.update(user));
+        verifyNoInteractions(notificationOutbox);
+    }
+
+    @Test
+    void update_staleVersion_throwsUserVersionMismatchException() {
+        User user = new User("Username", "test@email.com", 25);
+        user.setId(1L);
+        user.setVersion(3L);
+        when(userRepository.updateIfExists(1L, "Username", "test@email.com", 25, 3L))
+                .thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(UserVersionMismatchException.class, () -> userService.update(user));
+        verifyNoInteractions(notificationOutbox);
+    }
+
+    @Test
+    void update_versionGivenButUserMissing_throwsUserNotFoundException() {
+        User user = new User("Username", "test@email.com", 25);
+        user.setId(1L);
+        user.setVersion(3L);
+        when(userRepository.updateIfExists(1L, "Username", "test@email.com", 25, 3L))
+                .thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userService.update(user));
+    }
+
+    @Test
+    void matchVersion_currentVersionListed_returnsIt() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        assertEquals(3L, userService.matchVersion(1L, Set.of(2L, 3L)));
+    }
+
+    @Test
+    void matchVersion_currentVersionNotListed_throwsUserVersionMismatchException() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        assertThrows(UserVersionMismatchException.class, () -> userService.matchVersion(1L, Set.of(2L, 3L)));
+        assertThrows(UserVersionMismatchException.class, () -> userService.matchVersion(1L, Set.of()));
+    }
+
+    @Test
+    void matchVersion_userMissing_throwsUserNotFoundException() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.matchVersion(1L, Set.of(2L, 3L)));
     }
 
     @Test
@@ -168,27 +304,124 @@ class UserServiceImplTest {
 
     @Test
     void findAll_returnsListOfUsers() {
-        User user1 = new User("User1", "user1@example.com", 25);
-        User user2 = new User("User2", "user2@example.com", 30);
+        UserView user1 = view(1L, "User1", "user1@example.com", 25);
+        UserView user2 = view(2L, "User2", "user2@example.com", 30);
 
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
+        when(userRepository.findAllViews()).thenReturn(List.of(user1, user2));
 
-        List<User> result = userService.findAll();
+        List<UserView> result = userService.findAll();
 
         assertNotNull(result);
         assertEquals(2, result.size());
         assertTrue(result.contains(user1));
         assertTrue(result.contains(user2));
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findAllViews();
     }
 
     @Test
     void findAll_returnsEmptyList_whenDaoReturnsEmpty() {
-        when(userRepository.findAll()).thenReturn(List.of());
-        List<User> result = userService.findAll();
+        when(userRepository.findAllViews()).thenReturn(List.of());
+        List<UserView> result = userService.findAll();
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findAllViews();
+    }
+
+    @Test
+    void findPage_validLimit_queriesAfterCursor() {
+        UserView user = view(6L, "User1", "user1@example.com", 25);
+        when(userRepository.findViewsAfterId(5L, Limit.of(10))).thenReturn(List.of(user));
+
+        List<UserView> result = userService.findPage(5L, 10);
+
+        assertEquals(List.of(user), result);
+    }
+
+    @Test
+    void findPage_noCursor_startsFromBeginning() {
+        when(userRepository.findViewsAfterId(0L, Limit.of(10))).thenReturn(List.of());
+
+        assertTrue(userService.findPage(null, 10).isEmpty());
+        verify(userRepository).findViewsAfterId(0L, Limit.of(10));
+    }
+
+    @Test
+    void findPage_invalidLimit_throwsBusinessException() {
+        assertThrows(BusinessException.class, () -> userService.findPage(null, 0));
+        assertThrows(BusinessException.class,
+                () -> userService.findPage(null, UserServiceImpl.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void search_validFilter_delegatesToRepository() {
+        UserFilter filter = new UserFilter("ann", UserFilter.NameMatch.CONTAINS, 18, 30, null);
+        UserSort sort = new UserSort(UserSortField.NAME, false);
+        UserKey after = new UserKey("Ann", 4L);
+        List<UserView> page = List.of(view(5L, "Anna", "anna@example.com", 20));
+        when(userRepository.search(filter, sort, after, 10)).thenReturn(page);
+
+        assertSame(page, userService.search(filter, sort, after, 10));
+    }
+
+    @Test
+    void search_minAgeAboveMaxAge_throwsBusinessException() {
+        UserFilter filter = new UserFilter(null, UserFilter.NameMatch.PREFIX, 40, 30, null);
+
+        assertThrows(BusinessException.class, () -> userService.search(filter, UserSort.DEFAULT, null, 10));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void streamAll_passesEachUserInOrder() {
+        UserView user1 = view(1L, "User1", "user1@example.com", 25);
+        UserView user2 = view(2L, "User2", "user2@example.com", 30);
+        when(userRepository.streamViewsAfterId(0L)).thenReturn(Stream.of(user1, user2));
+
+        List<UserView> seen = new ArrayList<>();
+        userService.streamAll(null, seen::add);
+
+        assertEquals(List.of(user1, user2), seen);
+    }
+
+    @Test
+    void streamAll_resumesAfterGivenId() {
+        UserView user3 = view(3L, "User3", "user3@example.com", 35);
+        when(userRepository.streamViewsAfterId(2L)).thenReturn(Stream.of(user3));
+
+        List<UserView> seen = new ArrayList<>();
+        userService.streamAll(2L, seen::add);
+
+        assertEquals(List.of(user3), seen);
+    }
+
+    @Test
+    void isEmailAvailable_absentFromIndex_skipsDatabase() {
+        when(emailIndex.lookup("free@test.com")).thenReturn(EmailMembershipIndex.Membership.ABSENT_BLOOM);
+
+        assertTrue(userService.isEmailAvailable("free@test.com"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void isEmailAvailable_possibleHit_isConfirmedByDatabase() {
+        when(emailIndex.lookup("taken@test.com")).thenReturn(EmailMembershipIndex.Membership.POSSIBLE);
+        when(emailIndex.lookup("stale@test.com")).thenReturn(EmailMembershipIndex.Membership.POSSIBLE);
+        when(userRepository.existsByEmail("taken@test.com")).thenReturn(true);
+        when(userRepository.existsByEmail("stale@test.com")).thenReturn(false);
+
+        assertFalse(userService.isEmailAvailable("taken@test.com"));
+        assertTrue(userService.isEmailAvailable("stale@test.com"));
+    }
+
+    @Test
+    void isEmailAvailable_blankEmail_throwsBusinessException() {
+        assertThrows(BusinessException.class, () -> userService.isEmailAvailable(" "));
+        verifyNoInteractions(emailIndex, userRepository);
+    }
+
+    private static UserView view(Long id, String name, String email, Integer age) {
+        return new UserView(id, name, email, age, LocalDateTime.of(2024, 1, 1, 0, 0), 0L);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package org.hiber.service.email;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hiber.repository.UserRepository;
+import org.hiber.service.email.EmailMembershipIndex.Membership;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailMembershipIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmailMembershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EmailMembershipIndex(userRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(index, "expectedEmails", 1000L);
+        ReflectionTestUtils.setField(index, "falsePositiveRate", 0.01);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lookup_beforeFirstBuild_sendsEverythingToDatabase() {
+        assertEquals(Membership.POSSIBLE, index.lookup("anyone@test.com"));
+    }
+
+    @Test
+    void lookup_afterRebuild_answersUnknownEmailsFromMemory() {
+        build("john@test.com", "jane@test.com");
+
+        assertEquals(Membership.POSSIBLE, index.lookup("john@test.com"));
+        assertEquals(Membership.POSSIBLE, index.lookup("jane@test.com"));
+        assertNotEquals(Membership.POSSIBLE, index.lookup("free@test.com"));
+        assertEquals(2.0, meterRegistry.get("user.email.index.size").gauge().value());
+    }
+
+    @Test
+    void add_isVisibleImmediately() {
+        build();
+
+        index.add("new@test.com");
+
+        assertEquals(Membership.POSSIBLE, index.lookup("new@test.com"));
+    }
+
+    @Test
+    void remove_insideTransaction_appliesOnlyAfterCommit() {
+        build("john@test.com");
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.remove("john@test.com");
+        assertEquals(Membership.POSSIBLE, index.lookup("john@test.com"));
+
+        commit();
+        assertEquals(Membership.ABSENT_FINGERPRINT, index.lookup("john@test.com"));
+    }
+
+    @Test
+    void remove_emailAddedAgainBeforeCommit_keepsEmail() {
+        build("john@test.com");
+        TransactionSynchronizationManager.initSynchronization();
+        index.remove("john@test.com");
+        List<TransactionSynchronization> delete = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.add("john@test.com");
+        commit();
+        delete.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(Membership.POSSIBLE, index.lookup("john@test.com"));
+    }
+
+    @Test
+    void remove_emailAddedBeforeRemoval_appliesAfterCommit() {
+        build();
+        index.add("john@test.com");
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.remove("john@test.com");
+        commit();
+
+        assertEquals(Membership.ABSENT_FINGERPRINT, index.lookup("john@test.com"));
+    }
+
+    @Test
+    void remove_rolledBack_keepsEmail() {
+        build("john@test.com");
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.remove("john@test.com");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(Membership.POSSIBLE, index.lookup("john@test.com"));
+    }
+
+    @Test
+    void rebuild_replaysChangesMadeWhileStreaming() {
+        build("old@test.com");
+        when(userRepository.count()).thenReturn(1L);
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> {
+            index.add("concurrent@test.com");
+            index.remove("old@test.com");
+            return Stream.of("old@test.com");
+        });
+
+        index.rebuild();
+
+        assertEquals(Membership.POSSIBLE, index.lookup("concurrent@test.com"));
+        assertEquals(Membership.ABSENT_FINGERPRINT, index.lookup("old@test.com"));
+    }
+
+    @Test
+    void rebuild_failure_keepsPreviousIndex() {
+        build("john@test.com");
+        when(userRepository.count()).thenThrow(new IllegalStateException("database is down"));
+
+        index.rebuild();
+
+        assertEquals(Membership.POSSIBLE, index.lookup("john@test.com"));
+        assertNotEquals(Membership.POSSIBLE, index.lookup("free@test.com"));
+    }
+
+    @Test
+    void bloomFilter_keepsConfiguredFalsePositiveRate() {
+        ReflectionTestUtils.setField(index, "expectedEmails", 100_000L);
+        build(IntStream.range(0, 50_000).mapToObj(i -> "user" + i + "@test.com").toArray(String[]::new));
+
+        long bloomHits = IntStream.range(0, 100_000)
+                .mapToObj(i -> "other" + i + "@test.com")
+                .map(index::lookup)
+                .filter(membership -> membership != Membership.ABSENT_BLOOM)
+                .count();
+        long databaseChecks = (long) meterRegistry.get("user.email.index.lookups").tag("resolved_by", "database")
+                .counter().count();
+
+        assertTrue(bloomHits < 1_000, "bloom false positives: " + bloomHits);
+        assertEquals(0, databaseChecks);
+        assertTrue(index.expectedFalsePositiveRate() < 0.01);
+    }
+
+    @Test
+    void longHashSet_matchesReferenceSetUnderRandomChurn() {
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> reference = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long value = 1 + random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                assertEquals(reference.add(value), set.add(value));
+            } else {
+                assertEquals(reference.remove(value), set.remove(value));
+            }
+        }
+        assertEquals(reference.size(), set.size());
+        for (long value = 1; value <= 5_000; value++) {
+            assertEquals(reference.contains(value), set.contains(value));
+        }
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private void build(String... emails) {
+        when(userRepository.count()).thenReturn((long) emails.length);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of(emails));
+        index.rebuild();
+    }
+}
@@ -0,0 +1,52 @@
+package org.hiber.startup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.mockito.Mockito.*;
+
+class DeferredEurekaStatusTest {
+
+    @Test
+    void markUp_startingInstance_reportsUp() {
+        ApplicationInfoManager manager = managerWithStatus(InstanceStatus.STARTING);
+
+        new DeferredEurekaStatus(provider(manager)).markUp();
+
+        verify(manager).setInstanceStatus(InstanceStatus.UP);
+    }
+
+    @Test
+    void markUp_instanceNotStarting_keepsStatus() {
+        ApplicationInfoManager manager = managerWithStatus(InstanceStatus.OUT_OF_SERVICE);
+
+        new DeferredEurekaStatus(provider(manager)).markUp();
+
+        verify(manager, never()).setInstanceStatus(any());
+    }
+
+    @Test
+    void markUp_withoutEureka_doesNothing() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+        new DeferredEurekaStatus(beanFactory.getBeanProvider(ApplicationInfoManager.class)).markUp();
+    }
+
+    private static ApplicationInfoManager managerWithStatus(InstanceStatus status) {
+        InstanceInfo info = mock(InstanceInfo.class);
+        when(info.getStatus()).thenReturn(status);
+        ApplicationInfoManager manager = mock(ApplicationInfoManager.class);
+        when(manager.getInfo()).thenReturn(info);
+        return manager;
+    }
+
+    private static ObjectProvider<ApplicationInfoManager> provider(ApplicationInfoManager manager) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("applicationInfoManager", manager);
+        return beanFactory.getBeanProvider(ApplicationInfoManager.class);
+    }
+}